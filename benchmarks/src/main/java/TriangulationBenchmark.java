@@ -0,0 +1,266 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Cases of the JMH benchmarks of the triangulation engines and the queries on
+ * a triangulation. Every factory method prepares its input, so only the
+ * returned operation is measured. The class is part of the benchmarks module
+ * and stays in the default package of the triangulation classes, the
+ * benchmarks themselves are in a named package as JMH requires.
+ *
+ * Usage: mvn -B package, then from the project directory
+ * java -jar benchmarks/target/benchmarks.jar -prof gc
+ *
+ * The gc profiler reports the allocation rate and the bytes allocated per
+ * operation. The shapes read from vertexes.txt and 1.txt are resolved against
+ * the working directory.
+ */
+public final class TriangulationBenchmark {
+
+    private static final int RANGE = 50;
+    private static final int DEPTH = 150;
+
+    private static final int QUERY_COUNT = 1000;
+    private static final long SEED = 42L;
+
+    /**
+     * The point distributions the engines are measured on.
+     */
+    public enum Distribution {
+        /**
+         * Points spread uniformly over a square, like
+         * {@link DelaunayTriangulationExample} generates them.
+         */
+        UNIFORM,
+        /**
+         * Points gathered in dense normally distributed clusters.
+         */
+        CLUSTERED,
+        /**
+         * Points on a regular grid, full of collinear and cocircular
+         * quadruples.
+         */
+        GRID,
+        /**
+         * Points on a single circle, the worst case for the in circle test.
+         */
+        COCIRCULAR,
+        /**
+         * Copies of the survey in vertexes.txt tiled next to each other.
+         */
+        VERTEXES_FILE,
+        /**
+         * Copies of the survey in 1.txt tiled next to each other.
+         */
+        ONE_FILE
+    }
+
+    private TriangulationBenchmark() {
+    }
+
+    /**
+     * Creates the triangulation of a point set by one of the engines.
+     *
+     * @param engine
+     *            The engine, incremental, sweep-hull or divide-and-conquer
+     * @param distribution
+     *            The name of the distribution of the points
+     * @param size
+     *            The number of points
+     * @return Returns the operation triangulating the point set
+     * @throws IOException
+     *             Thrown if the shape of the distribution cannot be read
+     */
+    public static Callable<Object> triangulation(final String engine, String distribution, int size)
+            throws IOException {
+        final List<Point> pointSet = generate(Distribution.valueOf(distribution), size, new Random(SEED));
+        return () -> triangulate(engine, pointSet);
+    }
+
+    /**
+     * Creates the parallel triangulation of uniformly distributed points on a
+     * pool of the given parallelism, see
+     * {@link DelaunayTriangulator#triangulateParallel(ForkJoinPool)}.
+     *
+     * @param parallelism
+     *            The number of worker threads
+     * @param size
+     *            The number of points
+     * @return Returns the operation triangulating the point set
+     * @throws IOException
+     *             Never thrown for uniform points
+     */
+    public static Callable<Object> parallelTriangulation(int parallelism, int size) throws IOException {
+        final List<Point> pointSet = generate(Distribution.UNIFORM, size, new Random(SEED));
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        return () -> {
+            DelaunayTriangulator delaunayTriangulator = new DelaunayTriangulator(new ArrayList<Point>(pointSet));
+            delaunayTriangulator.triangulateParallel(pool);
+            return delaunayTriangulator.getTriangleSoup();
+        };
+    }
+
+    /**
+     * Creates a query on the triangulation of uniformly distributed points.
+     * The containing triangle search scans the whole triangle soup, so its
+     * query count shrinks with the size of the triangulation.
+     *
+     * @param query
+     *            The query, findContainingTriangleNew, getDepth or getIsoline
+     * @param size
+     *            The number of points
+     * @return Returns the operation running the query
+     * @throws Exception
+     *             Thrown if the triangulation fails
+     */
+    public static Callable<Object> query(String query, int size) throws Exception {
+        List<Point> pointSet = generate(Distribution.UNIFORM, size, new Random(SEED));
+        final TriangleSoup triangleSoup = triangulate("sweep-hull", pointSet);
+
+        Random random = new Random(SEED + 1);
+        final int queryCount = Math.max(1, Math.min(QUERY_COUNT, 100000000 / size));
+        final Point[] queries = new Point[queryCount];
+        for (int i = 0; i < queryCount; i++) {
+            queries[i] = new Point(random.nextDouble() * RANGE, random.nextDouble() * RANGE);
+        }
+
+        final Triangle[] containing = new Triangle[queryCount];
+        for (int i = 0; i < queryCount; i++) {
+            containing[i] = triangleSoup.findContainingTriangleNew(queries[i]);
+        }
+
+        switch (query) {
+        case "findContainingTriangleNew":
+            return () -> {
+                int found = 0;
+                for (Point point : queries) {
+                    if (triangleSoup.findContainingTriangleNew(point) != null) {
+                        found++;
+                    }
+                }
+                return found;
+            };
+        case "getDepth":
+            return () -> {
+                double sum = 0.0d;
+                for (int i = 0; i < queryCount; i++) {
+                    if (containing[i] != null) {
+                        sum += containing[i].getDepth(queries[i].x, queries[i].y);
+                    }
+                }
+                return sum;
+            };
+        case "getIsoline":
+            return () -> triangleSoup.getIsoline(DEPTH / 2);
+        default:
+            throw new IllegalArgumentException("Unknown query " + query + ".");
+        }
+    }
+
+    private static TriangleSoup triangulate(String engine, List<Point> pointSet) throws NotEnoughPointsException {
+        DelaunayTriangulator delaunayTriangulator = new DelaunayTriangulator(new ArrayList<Point>(pointSet));
+        if ("incremental".equals(engine)) {
+            delaunayTriangulator.sortSpatially(new Random(SEED));
+        } else if ("sweep-hull".equals(engine)) {
+            delaunayTriangulator.setEngine(new SweepHullTriangulationEngine());
+        } else if ("divide-and-conquer".equals(engine)) {
+            delaunayTriangulator.setEngine(new DivideAndConquerTriangulator());
+        } else {
+            throw new IllegalArgumentException("Unknown engine " + engine + ".");
+        }
+        delaunayTriangulator.triangulate();
+        return delaunayTriangulator.getTriangleSoup();
+    }
+
+    /**
+     * Generates a point set of the given distribution. The z coordinate of
+     * the generated points is uniform in [0, DEPTH).
+     */
+    static List<Point> generate(Distribution distribution, int n, Random random) throws IOException {
+        List<Point> pointSet = new ArrayList<Point>(n);
+
+        switch (distribution) {
+        case UNIFORM:
+            for (int i = 0; i < n; i++) {
+                pointSet.add(new Point(random.nextDouble() * RANGE, random.nextDouble() * RANGE,
+                        random.nextDouble() * DEPTH));
+            }
+            break;
+        case CLUSTERED:
+            int clusterCount = Math.max(1, n / 1000);
+            double[] centers = new double[2 * clusterCount];
+            for (int i = 0; i < centers.length; i++) {
+                centers[i] = random.nextDouble() * RANGE;
+            }
+            for (int i = 0; i < n; i++) {
+                int cluster = random.nextInt(clusterCount);
+                pointSet.add(new Point(centers[2 * cluster] + random.nextGaussian() * RANGE / 100.0d,
+                        centers[2 * cluster + 1] + random.nextGaussian() * RANGE / 100.0d,
+                        random.nextDouble() * DEPTH));
+            }
+            break;
+        case GRID:
+            int side = (int) Math.ceil(Math.sqrt(n));
+            double spacing = (double) RANGE / side;
+            for (int i = 0; i < n; i++) {
+                pointSet.add(new Point(i % side * spacing, i / side * spacing, random.nextDouble() * DEPTH));
+            }
+            break;
+        case COCIRCULAR:
+            for (int i = 0; i < n; i++) {
+                double angle = 2.0d * Math.PI * i / n;
+                pointSet.add(new Point(RANGE / 2.0d * (1.0d + Math.cos(angle)),
+                        RANGE / 2.0d * (1.0d + Math.sin(angle)), random.nextDouble() * DEPTH));
+            }
+            break;
+        case VERTEXES_FILE:
+            tile(read("vertexes.txt"), n, pointSet);
+            break;
+        default:
+            tile(read("1.txt"), n, pointSet);
+            break;
+        }
+
+        return pointSet;
+    }
+
+    /**
+     * Fills the point set with copies of the shape placed next to each other
+     * on a square grid until it holds n points.
+     */
+    private static void tile(List<Point> shape, int n, List<Point> pointSet) {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (Point point : shape) {
+            minX = Math.min(minX, point.x);
+            minY = Math.min(minY, point.y);
+            maxX = Math.max(maxX, point.x);
+            maxY = Math.max(maxY, point.y);
+        }
+
+        double width = maxX - minX + 1.0d;
+        double height = maxY - minY + 1.0d;
+        int columns = (int) Math.ceil(Math.sqrt((double) n / shape.size()));
+
+        for (int copy = 0; pointSet.size() < n; copy++) {
+            double offsetX = copy % columns * width;
+            double offsetY = copy / columns * height;
+            for (int i = 0; i < shape.size() && pointSet.size() < n; i++) {
+                Point point = shape.get(i);
+                pointSet.add(new Point(point.x + offsetX, point.y + offsetY, point.z));
+            }
+        }
+    }
+
+    private static List<Point> read(String fileName) throws IOException {
+        return PointCloudReader.read(Paths.get(fileName)).toPointSet();
+    }
+
+}
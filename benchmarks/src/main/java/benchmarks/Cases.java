@@ -0,0 +1,47 @@
+package benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+
+/**
+ * Bridge to the benchmark cases of the triangulation classes. Those classes
+ * live in the default package, which cannot be imported from a named
+ * package, and JMH only accepts benchmarks in named packages, so the factory
+ * methods of TriangulationBenchmark are called reflectively once per trial.
+ * The measured operations are plain {@link Callable}s.
+ */
+final class Cases {
+
+    private static final String CASES_CLASS = "TriangulationBenchmark";
+
+    private Cases() {
+    }
+
+    /**
+     * Calls a factory method of the benchmark cases.
+     *
+     * @param factory
+     *            The name of the factory method
+     * @param arguments
+     *            The arguments of the factory method
+     * @return Returns the operation to be measured
+     * @throws Exception
+     *             Thrown if the factory method fails
+     */
+    @SuppressWarnings("unchecked")
+    static Callable<Object> create(String factory, Object... arguments) throws Exception {
+        for (Method method : Class.forName(CASES_CLASS).getMethods()) {
+            if (method.getName().equals(factory) && method.getParameterCount() == arguments.length) {
+                try {
+                    return (Callable<Object>) method.invoke(null, arguments);
+                } catch (InvocationTargetException e) {
+                    Throwable cause = e.getCause();
+                    throw cause instanceof Exception ? (Exception) cause : e;
+                }
+            }
+        }
+        throw new NoSuchMethodException(CASES_CLASS + "." + factory);
+    }
+
+}
@@ -0,0 +1,60 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs {@link ParallelTriangulationBenchmark} on pools of 1, 2, 4 and so on up
+ * to all available cores and prints the speedup of every core count relative
+ * to a single core.
+ *
+ * Usage: java -cp benchmarks/target/benchmarks.jar benchmarks.ParallelSpeedup
+ * [size [maxParallelism]]
+ */
+public final class ParallelSpeedup {
+
+    private ParallelSpeedup() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String size = args.length > 0 ? args[0] : "1000000";
+        int maxParallelism = args.length > 1 ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+
+        List<String> parallelisms = new ArrayList<String>();
+        for (int parallelism = 1; parallelism < maxParallelism; parallelism *= 2) {
+            parallelisms.add(String.valueOf(parallelism));
+        }
+        parallelisms.add(String.valueOf(maxParallelism));
+
+        Options options = new OptionsBuilder().include(ParallelTriangulationBenchmark.class.getName())
+                .param("parallelism", parallelisms.toArray(new String[parallelisms.size()])).param("size", size)
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        double single = Double.NaN;
+        for (RunResult result : results) {
+            if ("1".equals(result.getParams().getParam("parallelism"))) {
+                single = result.getPrimaryResult().getScore();
+            }
+        }
+
+        System.out.println();
+        System.out.println(String.format("%12s %12s %10s %12s", "parallelism", "ms/op", "speedup", "efficiency"));
+        for (RunResult result : results) {
+            int parallelism = Integer.parseInt(result.getParams().getParam("parallelism"));
+            double score = result.getPrimaryResult().getScore();
+            double speedup = single / score;
+            System.out.println(String.format("%12d %12.3f %10.2f %11.0f%%", parallelism, score, speedup,
+                    100.0d * speedup / parallelism));
+        }
+    }
+
+}
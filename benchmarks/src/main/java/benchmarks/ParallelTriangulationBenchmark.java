@@ -0,0 +1,50 @@
+package benchmarks;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the divide and conquer triangulation on a fork join pool of the
+ * given parallelism. {@link ParallelSpeedup} runs it for every core count and
+ * reports the speedup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParallelTriangulationBenchmark {
+
+    @Param({ "1" })
+    public int parallelism;
+
+    @Param({ "1000000" })
+    public int size;
+
+    private Callable<Object> operation;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        operation = Cases.create("parallelTriangulation", parallelism, size);
+    }
+
+    @Benchmark
+    public Object triangulateParallel() throws Exception {
+        return operation.call();
+    }
+
+}
@@ -0,0 +1,61 @@
+package benchmarks;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the queries on a triangulation of uniformly distributed points: a
+ * batch of containing triangle searches, a batch of depth lookups and the
+ * extraction of an isoline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class QueryBenchmarks {
+
+    @Param({ "1000", "100000", "1000000" })
+    public int size;
+
+    private Callable<Object> findContainingTriangle;
+    private Callable<Object> depth;
+    private Callable<Object> isoline;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        findContainingTriangle = Cases.create("query", "findContainingTriangleNew", size);
+        depth = Cases.create("query", "getDepth", size);
+        isoline = Cases.create("query", "getIsoline", size);
+    }
+
+    @Benchmark
+    public Object findContainingTriangleNew() throws Exception {
+        return findContainingTriangle.call();
+    }
+
+    @Benchmark
+    public Object getDepth() throws Exception {
+        return depth.call();
+    }
+
+    @Benchmark
+    public Object getIsoline() throws Exception {
+        return isoline.call();
+    }
+
+}
@@ -0,0 +1,52 @@
+package benchmarks;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures triangulate() of every engine on every point distribution. Run
+ * with -prof gc to see the allocation rate of each case.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TriangulationBenchmarks {
+
+    @Param({ "incremental", "sweep-hull", "divide-and-conquer" })
+    public String engine;
+
+    @Param({ "UNIFORM", "CLUSTERED", "GRID", "COCIRCULAR", "VERTEXES_FILE", "ONE_FILE" })
+    public String distribution;
+
+    @Param({ "1000", "100000", "1000000" })
+    public int size;
+
+    private Callable<Object> operation;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        operation = Cases.create("triangulation", engine, distribution, size);
+    }
+
+    @Benchmark
+    public Object triangulate() throws Exception {
+        return operation.call();
+    }
+
+}
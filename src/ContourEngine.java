@@ -0,0 +1,301 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Extracts the isolines of many levels from an indexed mesh. A single pass
+ * over the triangles sorts every triangle into the levels it crosses, then
+ * the crossed triangles of every level are stitched into maximal polylines
+ * through the mesh edges they share. The state of a level lives in the call,
+ * so the mesh is never modified and concurrent calls do not interfere. Levels
+ * are traced in parallel.
+ */
+public final class ContourEngine {
+
+    /**
+     * Meshes with fewer triangles trace their levels on the current thread.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    private ContourEngine() {
+    }
+
+    /**
+     * Extracts the isolines of a single level.
+     *
+     * @param mesh
+     *            The mesh
+     * @param level
+     *            The level
+     * @return Returns the isolines of the level
+     */
+    public static List<Isoline> extract(IndexedMesh mesh, double level) {
+        return extract(mesh, new double[] { level });
+    }
+
+    /**
+     * Extracts the isolines of all levels. A vertex exactly at a level counts
+     * as lying above it, so every isoline crosses the interior of edges or
+     * passes through vertices, but never runs along an edge twice.
+     *
+     * @param mesh
+     *            The mesh
+     * @param levels
+     *            The levels in ascending order
+     * @return Returns the isolines ordered by level
+     */
+    public static List<Isoline> extract(final IndexedMesh mesh, final double[] levels) {
+        for (int i = 1; i < levels.length; i++) {
+            if (!(levels[i - 1] < levels[i])) {
+                throw new IllegalArgumentException("Levels are not sorted in strictly ascending order.");
+            }
+        }
+
+        /**
+         * The triangle t crosses the level l if its lowest vertex lies below
+         * and its highest vertex at or above the level, so it crosses all
+         * levels in the range between the two.
+         */
+        double[] z = mesh.z;
+        int[] triangles = mesh.triangles;
+        final int[] levelStart = new int[levels.length + 1];
+        int[] firstLevels = new int[mesh.triangleCount];
+        int[] lastLevels = new int[mesh.triangleCount];
+
+        for (int t = 0; t < mesh.triangleCount; t++) {
+            double za = z[triangles[3 * t]];
+            double zb = z[triangles[3 * t + 1]];
+            double zc = z[triangles[3 * t + 2]];
+            firstLevels[t] = upperBound(levels, Math.min(za, Math.min(zb, zc)));
+            lastLevels[t] = upperBound(levels, Math.max(za, Math.max(zb, zc)));
+            for (int level = firstLevels[t]; level < lastLevels[t]; level++) {
+                levelStart[level + 1]++;
+            }
+        }
+        for (int level = 0; level < levels.length; level++) {
+            levelStart[level + 1] += levelStart[level];
+        }
+
+        final int[] levelTriangles = new int[levelStart[levels.length]];
+        int[] fill = new int[levels.length];
+        System.arraycopy(levelStart, 0, fill, 0, levels.length);
+        for (int t = 0; t < mesh.triangleCount; t++) {
+            for (int level = firstLevels[t]; level < lastLevels[t]; level++) {
+                levelTriangles[fill[level]++] = t;
+            }
+        }
+
+        IntStream indices = IntStream.range(0, levels.length);
+        if (mesh.triangleCount >= PARALLEL_THRESHOLD && levels.length > 1) {
+            indices = indices.parallel();
+        }
+        List<List<Isoline>> perLevel = indices
+                .mapToObj(level -> trace(mesh, levels[level], levelTriangles, levelStart[level],
+                        levelStart[level + 1]))
+                .collect(Collectors.toList());
+
+        List<Isoline> isolines = new ArrayList<Isoline>();
+        for (List<Isoline> level : perLevel) {
+            isolines.addAll(level);
+        }
+        return isolines;
+    }
+
+    /**
+     * Returns the index of the first level greater than the value.
+     */
+    private static int upperBound(double[] levels, double value) {
+        int low = 0;
+        int high = levels.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (levels[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Traces all isolines of one level through the triangles crossing it.
+     * Every crossing is keyed by the mesh edge it lies on, so it is computed
+     * once and shared by both triangles on the edge. Each triangle adds a
+     * segment linking its two crossings, then the segments are joined into
+     * maximal polylines: open ones start at a crossing with a single segment
+     * on the boundary of the mesh, the remaining crossings form closed ones.
+     */
+    private static List<Isoline> trace(IndexedMesh mesh, double level, int[] levelTriangles, int from, int to) {
+        List<Isoline> isolines = new ArrayList<Isoline>();
+        EdgeTable edges = new EdgeTable(2 * (to - from));
+        List<Point> crossings = new ArrayList<Point>();
+        int[] links = new int[4 * (to - from)];
+        Arrays.fill(links, -1);
+
+        for (int i = from; i < to; i++) {
+            int triangle = levelTriangles[i];
+            int first = crossedEdge(mesh, triangle, level, -1);
+            int second = crossedEdge(mesh, triangle, level, first);
+            int a = crossingIndex(mesh, triangle, first, level, edges, crossings);
+            int b = crossingIndex(mesh, triangle, second, level, edges, crossings);
+            link(links, a, b);
+            link(links, b, a);
+        }
+
+        BitSet visited = new BitSet(crossings.size());
+        for (int c = 0; c < crossings.size(); c++) {
+            if (!visited.get(c) && links[2 * c + 1] < 0) {
+                isolines.add(stitch(level, c, crossings, links, visited));
+            }
+        }
+        for (int c = visited.nextClearBit(0); c < crossings.size(); c = visited.nextClearBit(c + 1)) {
+            isolines.add(stitch(level, c, crossings, links, visited));
+        }
+
+        return isolines;
+    }
+
+    /**
+     * Returns the index of the crossing on the edge of the triangle opposite
+     * to the vertex k, computing it if no triangle on the edge did before.
+     */
+    private static int crossingIndex(IndexedMesh mesh, int triangle, int k, double level, EdgeTable edges,
+            List<Point> crossings) {
+        int u = mesh.triangles[3 * triangle + (k + 1) % 3];
+        int w = mesh.triangles[3 * triangle + (k + 2) % 3];
+        long key = (long) Math.min(u, w) << 32 | Math.max(u, w);
+        int index = edges.putIfAbsent(key, crossings.size());
+        if (index == crossings.size()) {
+            crossings.add(crossing(mesh, Math.min(u, w), Math.max(u, w), level));
+        }
+        return index;
+    }
+
+    /**
+     * Stores b in the first free of the two link slots of a. An edge shared by
+     * more than two triangles keeps the first two segments only.
+     */
+    private static void link(int[] links, int a, int b) {
+        if (links[2 * a] < 0) {
+            links[2 * a] = b;
+        } else if (links[2 * a + 1] < 0) {
+            links[2 * a + 1] = b;
+        }
+    }
+
+    /**
+     * Follows the segments from the crossing until no unvisited crossing is
+     * left. The polyline is closed if its last crossing links back to the
+     * first.
+     */
+    private static Isoline stitch(double level, int first, List<Point> crossings, int[] links, BitSet visited) {
+        List<Point> points = new ArrayList<Point>();
+        int current = first;
+        int previous = -1;
+        boolean closed = false;
+
+        while (true) {
+            visited.set(current);
+            append(points, crossings.get(current));
+
+            int next = links[2 * current];
+            if (next < 0 || visited.get(next)) {
+                next = links[2 * current + 1];
+            }
+            if (next < 0 || visited.get(next)) {
+                closed = previous != first && (links[2 * current] == first || links[2 * current + 1] == first);
+                break;
+            }
+            previous = current;
+            current = next;
+        }
+
+        if (closed) {
+            points.add(points.get(0));
+        }
+        return new Isoline(level, points, closed);
+    }
+
+    /**
+     * Returns the edge of the triangle opposite to the vertex k that connects
+     * a vertex below the level with one at or above it, skipping the given
+     * edge.
+     */
+    private static int crossedEdge(IndexedMesh mesh, int triangle, double level, int skip) {
+        for (int k = 0; k < 3; k++) {
+            if (k == skip) {
+                continue;
+            }
+            boolean above1 = mesh.z[mesh.triangles[3 * triangle + (k + 1) % 3]] >= level;
+            boolean above2 = mesh.z[mesh.triangles[3 * triangle + (k + 2) % 3]] >= level;
+            if (above1 != above2) {
+                return k;
+            }
+        }
+        throw new IllegalStateException("Triangle " + triangle + " does not cross the level " + level + ".");
+    }
+
+    /**
+     * Computes where the level crosses the edge between the vertices i and j.
+     */
+    private static Point crossing(IndexedMesh mesh, int i, int j, double level) {
+        double f = (level - mesh.z[i]) / (mesh.z[j] - mesh.z[i]);
+        return new Point(mesh.x[i] + f * (mesh.x[j] - mesh.x[i]), mesh.y[i] + f * (mesh.y[j] - mesh.y[i]), level);
+    }
+
+    /**
+     * Appends the point unless it repeats the last point, which happens when
+     * the isoline passes through a vertex.
+     */
+    private static void append(List<Point> points, Point point) {
+        if (!points.isEmpty()) {
+            Point last = points.get(points.size() - 1);
+            if (last.x == point.x && last.y == point.y) {
+                return;
+            }
+        }
+        points.add(point);
+    }
+
+    /**
+     * Open addressing hash table from edge keys to crossing indices, avoiding
+     * the boxing of a hash map for the many small lookups of a level.
+     */
+    private static final class EdgeTable {
+
+        private final long[] keys;
+        private final int[] values;
+        private final int mask;
+
+        EdgeTable(int expectedSize) {
+            int capacity = Integer.highestOneBit(Math.max(2 * expectedSize, 2) - 1) << 1;
+            keys = new long[capacity];
+            values = new int[capacity];
+            mask = capacity - 1;
+            Arrays.fill(values, -1);
+        }
+
+        /**
+         * Returns the value stored for the key, storing and returning the
+         * given value if there is none.
+         */
+        int putIfAbsent(long key, int value) {
+            int slot = (int) (key ^ key >>> 29) * 0x9E3779B9 & mask;
+            while (values[slot] >= 0) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+                slot = slot + 1 & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            return value;
+        }
+
+    }
+
+}
@@ -1,12 +1,10 @@
 import java.awt.Color;
 import java.awt.Container;
 import java.awt.Graphics;
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Scanner;
 
 import javax.swing.JFrame;
 import javax.swing.JPanel;
@@ -49,35 +47,16 @@ public class DelaunayTriangulationExample {
     }
     
     private static void modifyTriangles() {
-    	/*for (Triangle triangle : triangleSoup) {
-    		if (distance(triangle.a, triangle.b) > AREA ||
-        			distance(triangle.a, triangle.c) > AREA ||
-        			distance(triangle.b, triangle.c) > AREA) {
-    			triangleSoup.remove(triangle);
-    		}
-    	}*/
-    	Iterator<Triangle> it = triangleSoup.iterator();
-        Triangle triangle;
-        while (it.hasNext()) {
-        	triangle = it.next();
-        	if (distance(triangle.a, triangle.b) > AREA ||
-        			distance(triangle.a, triangle.c) > AREA ||
-        			distance(triangle.b, triangle.c) > AREA) {
-        		it.remove();
-        	}
-        }
+    	triangleSoup.removeTrianglesLongerThan(AREA);
     }
 
 	private static List<Point> readVertexes(String fileName) {
-	    List<Point> pointSet = new ArrayList<>();
-		try (Scanner scanner = new Scanner(new File(fileName))) {
-			while (scanner.hasNext()) {
-				pointSet.add(new Point(scanner.nextFloat(), scanner.nextFloat(), scanner.nextFloat()));
-			}
-		} catch (FileNotFoundException e) {
+		try {
+			return PointCloudReader.read(Paths.get(fileName)).toPointSet();
+		} catch (IOException e) {
 			e.printStackTrace();
 		}
-		return pointSet;
+		return new ArrayList<>();
 	}
 
 	private static List<Point> generate(int n, int range, int depth) {
@@ -95,19 +74,14 @@ public class DelaunayTriangulationExample {
 
 		private final static double STEP = .1;
 		
-		Point p1, p2, p3;
-		
-		double minX = pointSet.get(0).x, minY = pointSet.get(0).y, maxX = 0, maxY = 0;
+		double minX = pointSet.get(0).x, minY = pointSet.get(0).y, maxX = minX, maxY = minY;
 		int height, width;
 		
 		double[][] depthMap;
 		
 		MyFrame() {
 			
-			double maxOfAnyCoordinate = 0.0d;
-
 	        for (Point vector : pointSet) {
-	            maxOfAnyCoordinate = Math.max(Math.max(vector.x, vector.y), maxOfAnyCoordinate);
 	            minX = Math.min(minX, vector.x);
 	            minY = Math.min(minY, vector.y);
 	            maxX = Math.max(maxX, vector.x);
@@ -117,23 +91,21 @@ public class DelaunayTriangulationExample {
 	        width = (int) Math.ceil((maxX - minX) / STEP);
 	        
 	        depthMap = new double[height + 1][width + 1];
-
-	        maxOfAnyCoordinate *= 16.0d;
-
-	        p1 = new Point(0.0d, 3.0d * maxOfAnyCoordinate);
-	        p2 = new Point(3.0d * maxOfAnyCoordinate, 0.0d);
-	        p3 = new Point(-3.0d * maxOfAnyCoordinate, -3.0d * maxOfAnyCoordinate);
 	        
+	        float[] raster = new DemRasterizer(minX, minY, STEP, width + 1, height + 1).rasterize(triangleSoup);
+	        for (int i = 0; i <= height; i++) {
+	        	for (int j = 0; j <= width; j++) {
+	        		float depth = raster[i * (width + 1) + j];
+	        		depthMap[i][j] = Float.isNaN(depth) ? -1 : depth;
+	        	}
+	        }
+
 			Container c = this.getContentPane();
 			c.add(new JPanel() {
 				@Override
 			    public void paintComponent(Graphics g) {
 			        super.paintComponent(g);
 			        
-			        drawEdge(g, p1, p2);
-			        drawEdge(g, p1, p3);
-			        drawEdge(g, p3, p2);
-			        
 			        for (Point point : pointSet) {
 			        	g.fillOval((int) (point.x * SCALE - POINT_RADIUS / 2), (int) (point.y * SCALE - POINT_RADIUS / 2), POINT_RADIUS, POINT_RADIUS);
 			        }
@@ -152,14 +124,8 @@ public class DelaunayTriangulationExample {
 					g.setColor(Color.BLACK);
 			        for (int i = 0; i <= height; i++) {
 			        	for (int j = 0; j <= width; j++) {
-			        		double x = minX + j * STEP;
-			        		double y = minY + i * STEP;
-			        		Triangle triangle = triangleSoup.findContainingTriangleNew(new Point(x, y));
-			        		if (triangle != null) {
-				        		depthMap[i][j] = triangle.getDepth(x,  y);
-				        		drawDot(g, x, y, (int) depthMap[i][j]);			        			
-			        		} else {
-			        			depthMap[i][j] = -1;
+			        		if (depthMap[i][j] != -1) {
+				        		drawDot(g, minX + j * STEP, minY + i * STEP, (int) depthMap[i][j]);
 			        		}
 			        	}
 			        }
@@ -1,14 +1,29 @@
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 /**
- * A Java implementation of an incremental 2D Delaunay triangulation algorithm.
+ * A Java implementation of a 2D Delaunay triangulator. The triangulation
+ * itself is computed by an exchangeable {@link TriangulationEngine}, by
+ * default the incremental algorithm.
  */
 public class DelaunayTriangulator {
 
     private List<Point> pointSet;
+    private Map<Point, Integer> pointIndices;
+    private List<Edge> constraints;
     private TriangleSoup triangleSoup;
+    private IndexedMesh indexedMesh;
+    private IncrementalTriangulationEngine incrementalEngine;
+    private TriangulationEngine engine;
+    private final TriangulationStatistics statistics;
+    private boolean statisticsEnabled;
+    private TriangulationListener listener;
 
     /**
      * Constructor of the SimpleDelaunayTriangulator class used to create a new
@@ -21,209 +36,365 @@ public class DelaunayTriangulator {
      */
     public DelaunayTriangulator(List<Point> pointSet) {
         this.pointSet = pointSet;
+        this.constraints = new ArrayList<Edge>();
         this.triangleSoup = new TriangleSoup();
+        this.incrementalEngine = new IncrementalTriangulationEngine();
+        this.engine = incrementalEngine;
+        this.statistics = new TriangulationStatistics();
+        setStatisticsEnabled(true);
     }
 
     /**
      * This method generates a Delaunay triangulation from the specified point
-     * set.
+     * set using the current triangulation engine.
      * 
      * @throws NotEnoughPointsException
      */
     public void triangulate() throws NotEnoughPointsException {
-        triangleSoup = new TriangleSoup();
+        if (pointSet == null || pointSet.size() < 3) {
+            throw new NotEnoughPointsException("Less than three points in point set.");
+        }
+
+        TriangulationStatistics before = begin(engine);
+        indexedMesh = null;
+        triangleSoup = engine.triangulate(pointSet);
+        insertConstraints();
+        finish(before);
+    }
 
+    /**
+     * This method generates a Delaunay triangulation from the specified point
+     * set using the current triangulation engine and returns it as indexed
+     * mesh, see {@link TriangulationEngine#triangulateIndexed(List)}. The
+     * sweep hull and divide and conquer engines write the mesh without
+     * creating triangle objects, the triangle soup is only built once it is
+     * requested or the triangulation is edited. If there are constrained
+     * edges, the triangulation is computed by {@link #triangulate()} and
+     * converted.
+     * 
+     * @return Returns the triangulation as indexed mesh.
+     * @throws NotEnoughPointsException
+     */
+    public IndexedMesh triangulateIndexed() throws NotEnoughPointsException {
         if (pointSet == null || pointSet.size() < 3) {
             throw new NotEnoughPointsException("Less than three points in point set.");
         }
 
-        /**
-         * In order for the in circumcircle test to not consider the vertices of
-         * the super triangle we have to start out with a big triangle
-         * containing the whole point set. We have to scale the super triangle
-         * to be very large. Otherwise the triangulation is not convex.
-         */
-        double maxOfAnyCoordinate = 0.0d;
+        if (!constraints.isEmpty()) {
+            triangulate();
+            return getIndexedMesh();
+        }
 
-        for (Point vector : getPointSet()) {
-            maxOfAnyCoordinate = Math.max(Math.max(vector.x, vector.y), maxOfAnyCoordinate);
+        TriangulationStatistics before = begin(engine);
+        IndexedMesh mesh = engine.triangulateIndexed(pointSet);
+        incrementalEngine.clearConstraints();
+        triangleSoup = new TriangleSoup();
+        indexedMesh = mesh;
+        finish(before);
+        return mesh;
+    }
+
+    /**
+     * Lets the engine count into the statistics of this triangulator, if
+     * they are enabled. Returns a copy of the statistics if the listener
+     * needs the statistics of the coming triangulation alone.
+     */
+    private TriangulationStatistics begin(TriangulationEngine engine) {
+        engine.setStatistics(statisticsEnabled ? statistics : null);
+        return statisticsEnabled && listener != null ? statistics.copy() : null;
+    }
+
+    /**
+     * Reports the phases and the statistics of a finished triangulation to
+     * the listener.
+     */
+    private void finish(TriangulationStatistics before) {
+        if (before == null) {
+            return;
         }
+        TriangulationStatistics run = statistics.since(before);
+        if (run.orderingNanos > 0L) {
+            listener.phaseFinished(TriangulationStatistics.Phase.ORDERING, run.orderingNanos);
+        }
+        listener.phaseFinished(TriangulationStatistics.Phase.INSERTION, run.insertionNanos);
+        listener.phaseFinished(TriangulationStatistics.Phase.CLEANUP, run.cleanupNanos);
+        listener.triangulationFinished(run);
+    }
 
-        maxOfAnyCoordinate *= 16.0d;
+    /**
+     * Builds the triangle soup of a triangulation that only exists as indexed
+     * mesh so far. The mesh is dropped, as the soup is about to be edited or
+     * the point set about to be reordered.
+     */
+    private void buildTriangleSoup() {
+        if (indexedMesh != null) {
+            triangleSoup = indexedMesh.toTriangleSoup(pointSet);
+            indexedMesh = null;
+        }
+    }
 
-        Point p1 = new Point(0.0d, 3.0d * maxOfAnyCoordinate);
-        Point p2 = new Point(3.0d * maxOfAnyCoordinate, 0.0d);
-        Point p3 = new Point(-3.0d * maxOfAnyCoordinate, -3.0d * maxOfAnyCoordinate);
+    /**
+     * This method generates a Delaunay triangulation from the specified point
+     * set using the divide and conquer algorithm on the common fork join pool.
+     * 
+     * @throws NotEnoughPointsException
+     */
+    public void triangulateParallel() throws NotEnoughPointsException {
+        triangulateParallel(ForkJoinPool.commonPool());
+    }
 
-        Triangle superTriangle = new Triangle(p1, p2, p3);
+    /**
+     * This method generates a Delaunay triangulation from the specified point
+     * set using the divide and conquer algorithm. The point set is split
+     * spatially, the parts are triangulated concurrently on the given pool and
+     * merged pairwise. The resulting triangle soup has the same structure as
+     * the one produced by {@link #triangulate()}.
+     * 
+     * @param pool
+     *            The pool the parts are triangulated on
+     * @throws NotEnoughPointsException
+     */
+    public void triangulateParallel(ForkJoinPool pool) throws NotEnoughPointsException {
+        if (pointSet == null || pointSet.size() < 3) {
+            throw new NotEnoughPointsException("Less than three points in point set.");
+        }
 
-        triangleSoup.add(superTriangle);
+        DivideAndConquerTriangulator parallelEngine = new DivideAndConquerTriangulator(pool);
+        TriangulationStatistics before = begin(parallelEngine);
+        indexedMesh = null;
+        triangleSoup = parallelEngine.triangulate(pointSet);
+        insertConstraints();
+        finish(before);
+    }
 
-        for (Point point : pointSet) {
-            Triangle triangle = triangleSoup.findContainingTriangle(point);
+    /**
+     * Adds a constrained edge that has to appear in the triangulation, for
+     * example a breakline or a part of a site outline. The end points of the
+     * edge are inserted as points if they are not part of the triangulation
+     * yet. If there is a triangulation, the edge is inserted right away,
+     * otherwise by the next triangulation. The triangles crossed by the edge
+     * are replaced without adding further points, see
+     * {@link IncrementalTriangulationEngine#insertConstraint(TriangleSoup, Edge)}.
+     * 
+     * @param edge
+     *            The constrained edge
+     * @throws IllegalArgumentException
+     *             Thrown if the edge leaves the triangulation or crosses
+     *             another constrained edge, the triangulation is left as it
+     *             was
+     */
+    public void addConstraint(Edge edge) {
+        buildTriangleSoup();
+        for (Edge constraint : constraints) {
+            if (crosses(edge, constraint)) {
+                throw new IllegalArgumentException("Constraint from " + edge.a + " to " + edge.b
+                        + " crosses another constraint.");
+            }
+        }
 
-            if (triangle == null) {
+        if (!triangleSoup.isEmpty()) {
+            boolean insertedA = insert(edge.a);
+            boolean insertedB = insert(edge.b);
+            try {
+                incrementalEngine.insertConstraint(triangleSoup, edge);
+            } catch (IllegalArgumentException e) {
                 /**
-                 * If no containing triangle exists, then the vertex is not
-                 * inside a triangle (this can also happen due to numerical
-                 * errors) and lies on an edge. In order to find this edge we
-                 * search all edges of the triangle soup and select the one
-                 * which is nearest to the point we try to add. This edge is
-                 * removed and four new edges are added.
+                 * The edge is rejected as a whole, so the end points it
+                 * added are taken out again.
                  */
-            	
-            	System.out.println(point);
-            	if (point.x == 8.) {
-            		triangle = null;
-            	}
-                Edge edge = triangleSoup.findNearestEdge(point);
-
-                Triangle first = triangleSoup.findOneTriangleSharing(edge);
-                Triangle second = first.getNoneEdgeNeigbourTiangle(edge);
-
-                Point firstNoneEdgeVertex = first.getNoneEdgeVertex(edge);
-                Point secondNoneEdgeVertex = second.getNoneEdgeVertex(edge);
-
-                triangleSoup.remove(first);
-                triangleSoup.remove(second);
-
-                Triangle triangle1 = new Triangle(edge.a, firstNoneEdgeVertex, point);
-                Triangle triangle2 = new Triangle(edge.b, firstNoneEdgeVertex, point);
-                Triangle triangle3 = new Triangle(edge.a, secondNoneEdgeVertex, point);
-                Triangle triangle4 = new Triangle(edge.b, secondNoneEdgeVertex, point);
-                triangle1.neighbourOppositeA = triangle2;
-                triangle1.neighbourOppositeB = triangle3;
-                triangle2.neighbourOppositeA = triangle1;
-                triangle2.neighbourOppositeB = triangle4;
-                triangle3.neighbourOppositeA = triangle4;
-                triangle3.neighbourOppositeB = triangle1;
-                triangle4.neighbourOppositeA = triangle3;
-                triangle4.neighbourOppositeB = triangle2;
-                
-                triangle1.neighbourOppositeC = first.getNoneEdgeNeigbourTiangle(edge.a, firstNoneEdgeVertex);
-                if (triangle1.neighbourOppositeC != null) {
-                	triangle1.neighbourOppositeC.setNeighbour(edge.a, firstNoneEdgeVertex, triangle1);
-                }
-                triangle2.neighbourOppositeC = first.getNoneEdgeNeigbourTiangle(edge.b, firstNoneEdgeVertex);
-                if (triangle2.neighbourOppositeC != null) {
-                	triangle2.neighbourOppositeC.setNeighbour(edge.b, firstNoneEdgeVertex, triangle2);
+                if (insertedB) {
+                    removeEndPoint(edge.b);
                 }
-                triangle3.neighbourOppositeC = second.getNoneEdgeNeigbourTiangle(edge.a, secondNoneEdgeVertex); 
-                if (triangle3.neighbourOppositeC != null) {
-                	triangle3.neighbourOppositeC.setNeighbour(edge.a, secondNoneEdgeVertex, triangle3);
-                }
-                triangle4.neighbourOppositeC = second.getNoneEdgeNeigbourTiangle(edge.b, secondNoneEdgeVertex);             
-                if (triangle4.neighbourOppositeC != null) {
-                	triangle4.neighbourOppositeC.setNeighbour(edge.b, secondNoneEdgeVertex, triangle4);
+                if (insertedA) {
+                    removeEndPoint(edge.a);
                 }
+                throw e;
+            }
+        }
+        constraints.add(edge);
+    }
 
-                triangleSoup.add(triangle1);
-                triangleSoup.add(triangle2);
-                triangleSoup.add(triangle3);
-                triangleSoup.add(triangle4);
+    /**
+     * Returns true if the interiors of the two edges cross in a single point.
+     */
+    private static boolean crosses(Edge edge, Edge other) {
+        double a = Predicates.orientation(edge.a.x, edge.a.y, edge.b.x, edge.b.y, other.a.x, other.a.y);
+        double b = Predicates.orientation(edge.a.x, edge.a.y, edge.b.x, edge.b.y, other.b.x, other.b.y);
+        double c = Predicates.orientation(other.a.x, other.a.y, other.b.x, other.b.y, edge.a.x, edge.a.y);
+        double d = Predicates.orientation(other.a.x, other.a.y, other.b.x, other.b.y, edge.b.x, edge.b.y);
+        return ((a > 0.0d && b < 0.0d) || (a < 0.0d && b > 0.0d))
+                && ((c > 0.0d && d < 0.0d) || (c < 0.0d && d > 0.0d));
+    }
 
-                legalizeEdge(triangle1, new Edge(edge.a, firstNoneEdgeVertex), point);
-                legalizeEdge(triangle2, new Edge(edge.b, firstNoneEdgeVertex), point);
-                legalizeEdge(triangle3, new Edge(edge.a, secondNoneEdgeVertex), point);
-                legalizeEdge(triangle4, new Edge(edge.b, secondNoneEdgeVertex), point);
-            } else {
-                /**
-                 * The vertex is inside a triangle.
-                 */
-                Point a = triangle.a;
-                Point b = triangle.b;
-                Point c = triangle.c;
-
-                triangleSoup.remove(triangle);
-
-                Triangle first = new Triangle(a, b, point);
-                Triangle second = new Triangle(b, c, point);
-                Triangle third = new Triangle(c, a, point);
-                
-                first.neighbourOppositeA = second;
-                first.neighbourOppositeB = third;
-                first.neighbourOppositeC = triangle.neighbourOppositeC;
-                second.neighbourOppositeA = third;
-                second.neighbourOppositeB = first;
-                second.neighbourOppositeC = triangle.neighbourOppositeA;
-                third.neighbourOppositeA = first;
-                third.neighbourOppositeB = second;
-                third.neighbourOppositeC = triangle.neighbourOppositeB;
-                
-                
-                if (triangle.neighbourOppositeA != null) 
-                	triangle.neighbourOppositeA.setNeighbour(c, b, second);
-                if (triangle.neighbourOppositeB != null) 
-                	triangle.neighbourOppositeB.setNeighbour(a, c, third);
-                if (triangle.neighbourOppositeC != null) 
-                	triangle.neighbourOppositeC.setNeighbour(a, b, first);
-
-                triangleSoup.add(first);
-                triangleSoup.add(second);
-                triangleSoup.add(third);
-
-                legalizeEdge(first, new Edge(a, b), point);
-                legalizeEdge(second, new Edge(b, c), point);
-                legalizeEdge(third, new Edge(c, a), point);
+    /**
+     * Returns true if the vertex lies on the edge, at an end point or in its
+     * interior.
+     */
+    private static boolean touches(Edge edge, Point vertex) {
+        if (Predicates.orientation(edge.a.x, edge.a.y, edge.b.x, edge.b.y, vertex.x, vertex.y) != 0.0d) {
+            return false;
+        }
+        return Math.min(edge.a.x, edge.b.x) <= vertex.x && vertex.x <= Math.max(edge.a.x, edge.b.x)
+                && Math.min(edge.a.y, edge.b.y) <= vertex.y && vertex.y <= Math.max(edge.a.y, edge.b.y);
+    }
+
+    /**
+     * Removes an end point of a rejected constrained edge. If the point split
+     * a constrained edge, the engine dropped both parts with it, so the edge
+     * is inserted again.
+     */
+    private void removeEndPoint(Point point) {
+        Point vertex = incrementalEngine.remove(triangleSoup, point);
+        if (vertex == null) {
+            return;
+        }
+        removeFromPointSet(vertex);
+        for (Edge constraint : constraints) {
+            if (touches(constraint, vertex)) {
+                incrementalEngine.insertConstraint(triangleSoup, constraint);
             }
         }
+    }
 
-        /**
-         * Remove all triangles that contain vertices of the super triangle.
-         */
-        triangleSoup.removeTrianglesUsing(superTriangle.a);
-        triangleSoup.removeTrianglesUsing(superTriangle.b);
-        triangleSoup.removeTrianglesUsing(superTriangle.c);
+    /**
+     * Inserts the constrained edges into a new triangulation. End points
+     * missing from the point set are appended to it.
+     */
+    private void insertConstraints() {
+        incrementalEngine.clearConstraints();
+        if (triangleSoup.isEmpty()) {
+            return;
+        }
+        for (Edge edge : constraints) {
+            insert(edge.a);
+            insert(edge.b);
+            incrementalEngine.insertConstraint(triangleSoup, edge);
+        }
     }
 
     /**
-     * This method legalizes edges by recursively flipping all illegal edges.
+     * Inserts a point into the current triangulation without rebuilding it.
+     * Only the triangles around the new point are replaced, using the split
+     * and legalize steps of the incremental engine, so the cost depends on
+     * the neighbourhood of the point rather than on the size of the point
+     * set. The point is appended to the point set. As long as there is no
+     * triangulation yet the point set is triangulated from scratch instead.
      * 
-     * @param triangle
-     *            The triangle
-     * @param edge
-     *            The edge to be legalized
-     * @param newVertex
-     *            The new vertex
-     */
-    private void legalizeEdge(Triangle triangle, Edge edge, Point newVertex) {
-        Triangle neighbourTriangle = triangle.getNoneEdgeNeigbourTiangle(edge);
-
-        /**
-         * If the triangle has a neighbor, then legalize the edge
-         */
-        if (neighbourTriangle != null) {
-            if (neighbourTriangle.isPointInCircumcircle(newVertex)) {
-                triangleSoup.remove(triangle);
-                triangleSoup.remove(neighbourTriangle);
-
-                Point noneEdgeVertex = neighbourTriangle.getNoneEdgeVertex(edge);
-
-                Triangle firstTriangle = new Triangle(noneEdgeVertex, edge.a, newVertex);
-                Triangle secondTriangle = new Triangle(noneEdgeVertex, edge.b, newVertex);
-                firstTriangle.neighbourOppositeA = triangle.getNoneEdgeNeigbourTiangle(edge.a, newVertex);
-                firstTriangle.neighbourOppositeC = neighbourTriangle.getNoneEdgeNeigbourTiangle(edge.a, noneEdgeVertex);
-                firstTriangle.neighbourOppositeB = secondTriangle;
-                secondTriangle.neighbourOppositeA = triangle.getNoneEdgeNeigbourTiangle(edge.b, newVertex);
-                secondTriangle.neighbourOppositeC =  neighbourTriangle.getNoneEdgeNeigbourTiangle(edge.b, noneEdgeVertex);
-                secondTriangle.neighbourOppositeB = firstTriangle;
-                
-                firstTriangle.neighbourOppositeA.setNeighbour(edge.a, newVertex, firstTriangle);
-                secondTriangle.neighbourOppositeA.setNeighbour(edge.b, newVertex, secondTriangle);
-                if (firstTriangle.neighbourOppositeC != null) {
-                	firstTriangle.neighbourOppositeC.setNeighbour(edge.a, noneEdgeVertex, firstTriangle);
-                }
-                if (secondTriangle.neighbourOppositeC != null) {
-                	secondTriangle.neighbourOppositeC.setNeighbour(edge.b, noneEdgeVertex, secondTriangle);
+     * @param point
+     *            The point to be inserted
+     * @return Returns true if the triangulation changed, false if the point
+     *         coincides with a vertex of the triangulation or lies outside of
+     *         a filtered triangulation
+     */
+    public boolean insert(Point point) {
+        buildTriangleSoup();
+        if (triangleSoup.isEmpty()) {
+            pointSet.add(point);
+            if (pointSet.size() >= 3) {
+                try {
+                    triangulate();
+                } catch (NotEnoughPointsException e) {
+                    return false;
                 }
+            }
+            return !triangleSoup.isEmpty();
+        }
+
+        if (!incrementalEngine.insert(triangleSoup, point)) {
+            return false;
+        }
+        if (pointIndices != null) {
+            pointIndices.put(point, pointSet.size());
+        }
+        pointSet.add(point);
+        return true;
+    }
 
-                triangleSoup.add(firstTriangle);
-                triangleSoup.add(secondTriangle);
+    /**
+     * Removes a vertex from the point set in constant time. The last point
+     * takes the place of the removed one. The positions of the points are
+     * indexed on the first removal and kept up to date by insert and remove.
+     * The index is rebuilt if the point set was reordered or edited from
+     * outside since.
+     */
+    private void removeFromPointSet(Point vertex) {
+        Integer index = pointIndices == null ? null : pointIndices.get(vertex);
+        if (index == null || index >= pointSet.size() || pointSet.get(index) != vertex) {
+            pointIndices = new IdentityHashMap<Point, Integer>(2 * pointSet.size());
+            for (int i = 0; i < pointSet.size(); i++) {
+                pointIndices.put(pointSet.get(i), i);
+            }
+            index = pointIndices.get(vertex);
+            if (index == null) {
+                return;
+            }
+        }
+
+        pointIndices.remove(vertex);
+        Point last = pointSet.remove(pointSet.size() - 1);
+        if (last != vertex) {
+            pointSet.set(index, last);
+            pointIndices.put(last, index);
+        }
+    }
+
+    /**
+     * Inserts the points into the current triangulation one after the other,
+     * see {@link #insert(Point)}. Large batches are inserted in a spatially
+     * coherent order, which keeps the point location walks short.
+     * 
+     * @param points
+     *            The points to be inserted
+     * @return Returns the number of points that changed the triangulation
+     */
+    public int insertAll(Collection<? extends Point> points) {
+        List<Point> batch = new ArrayList<Point>(points);
+        if (batch.size() > 1) {
+            long start = System.nanoTime();
+            int[] permutation = SpatialOrder.hilbert(batch);
+            List<Point> ordered = new ArrayList<Point>(batch.size());
+            for (int index : permutation) {
+                ordered.add(batch.get(index));
+            }
+            batch = ordered;
+            recordOrdering(System.nanoTime() - start);
+        }
 
-                legalizeEdge(firstTriangle, new Edge(noneEdgeVertex, edge.a), newVertex);
-                legalizeEdge(secondTriangle, new Edge(noneEdgeVertex, edge.b), newVertex);
+        int inserted = 0;
+        for (Point point : batch) {
+            if (insert(point)) {
+                inserted++;
             }
         }
+        return inserted;
+    }
+
+    /**
+     * Removes the vertex with the coordinates of the given point from the
+     * current triangulation without rebuilding it. Only the triangles around
+     * the vertex are replaced, so the cost depends on the degree of the vertex
+     * rather than on the size of the point set. The vertex is removed from the
+     * point set as well, in constant time, by moving the last point of the
+     * point set into its place. Constrained edges ending at the vertex or passing
+     * through it are dropped together with it, so a later triangulation does
+     * not bring the vertex back.
+     * 
+     * @param point
+     *            A point with the coordinates of the vertex to be removed
+     * @return Returns true if the triangulation changed, false if it has no
+     *         vertex with the coordinates of the point
+     */
+    public boolean remove(Point point) {
+        buildTriangleSoup();
+        Point vertex = incrementalEngine.remove(triangleSoup, point);
+        if (vertex == null) {
+            return false;
+        }
+        removeFromPointSet(vertex);
+        if (!constraints.isEmpty()) {
+            constraints.removeIf(constraint -> touches(constraint, vertex));
+        }
+        return true;
     }
 
     /**
@@ -232,7 +403,47 @@ public class DelaunayTriangulator {
      * computation.
      */
     public void shuffle() {
+        buildTriangleSoup();
         Collections.shuffle(pointSet);
+        pointIndices = null;
+    }
+
+    /**
+     * Reorders the point set into a biased randomized insertion order. The
+     * points are split into randomized rounds and sorted along a Hilbert curve
+     * within every round, so consecutive points lie close to each other and
+     * locating them only takes a few steps. For large point sets the curve
+     * order is computed in parallel.
+     */
+    public void sortSpatially() {
+        sortSpatially(new Random());
+    }
+
+    /**
+     * Reorders the point set into a biased randomized insertion order using
+     * the given source of randomness. Use a seeded instance for reproducible
+     * runs.
+     * 
+     * @param random
+     *            The source of randomness
+     */
+    public void sortSpatially(Random random) {
+        long start = System.nanoTime();
+        shuffle(SpatialOrder.brio(pointSet, random));
+        recordOrdering(System.nanoTime() - start);
+    }
+
+    /**
+     * Adds the time spent ordering points to the statistics and reports it
+     * to the listener.
+     */
+    private void recordOrdering(long nanos) {
+        if (statisticsEnabled) {
+            statistics.addTime(TriangulationStatistics.Phase.ORDERING, nanos);
+            if (listener != null) {
+                listener.phaseFinished(TriangulationStatistics.Phase.ORDERING, nanos);
+            }
+        }
     }
 
     /**
@@ -242,11 +453,22 @@ public class DelaunayTriangulator {
      *            The permutation used to shuffle the point set
      */
     public void shuffle(int[] permutation) {
+        buildTriangleSoup();
         List<Point> temp = new ArrayList<Point>();
         for (int i = 0; i < permutation.length; i++) {
             temp.add(pointSet.get(permutation[i]));
         }
         pointSet = temp;
+        pointIndices = null;
+    }
+
+    /**
+     * Returns the constrained edges of the triangulation.
+     * 
+     * @return Returns the constrained edges
+     */
+    public List<Edge> getConstraints() {
+        return constraints;
     }
 
     /**
@@ -258,6 +480,139 @@ public class DelaunayTriangulator {
         return pointSet;
     }
 
+    /**
+     * Writes the triangulation into an indexed mesh. The index of a vertex in
+     * the mesh is the index of the point in the point set. The mesh computed
+     * by {@link #triangulateIndexed()} is returned as is.
+     * 
+     * @return Returns the triangulation as indexed mesh.
+     */
+    public IndexedMesh getIndexedMesh() {
+        if (indexedMesh != null) {
+            return indexedMesh;
+        }
+        return IndexedMesh.of(pointSet, triangleSoup);
+    }
+
+    /**
+     * Returns the engine used by {@link #triangulate()}.
+     * 
+     * @return Returns the triangulation engine.
+     */
+    public TriangulationEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Sets the engine used by {@link #triangulate()}. The incremental engine
+     * suits small interactive edits, the sweep hull engine bulk rebuilds of
+     * large point sets.
+     * 
+     * @param engine
+     *            The triangulation engine
+     */
+    public void setEngine(TriangulationEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Returns the incremental engine of this triangulator. It holds the point
+     * locator and the flip counters of incremental insertions.
+     * 
+     * @return Returns the incremental triangulation engine.
+     */
+    public IncrementalTriangulationEngine getIncrementalEngine() {
+        return incrementalEngine;
+    }
+
+    /**
+     * Returns the point locator used by the incremental engine to find the
+     * triangle containing a newly inserted point. Its mode can be switched to
+     * a linear scan for debugging.
+     * 
+     * @return Returns the point locator.
+     */
+    public PointLocator getPointLocator() {
+        return incrementalEngine.getPointLocator();
+    }
+
+    /**
+     * Returns the number of edge flips the incremental engine performed while
+     * inserting the most recently inserted point.
+     * 
+     * @return Returns the number of flips of the last insertion.
+     */
+    public int getLastInsertionFlipCount() {
+        return incrementalEngine.getLastInsertionFlipCount();
+    }
+
+    /**
+     * Returns the number of edge flips performed by the last incremental
+     * triangulation.
+     * 
+     * @return Returns the number of flips of the last triangulation.
+     */
+    public long getFlipCount() {
+        return incrementalEngine.getFlipCount();
+    }
+
+    /**
+     * Returns the counters and phase timers of this triangulator. They cover
+     * the triangulations of every engine and the incremental edits, see
+     * {@link TriangulationEngine#setStatistics(TriangulationStatistics)}.
+     * Spatial sorting of the point set is timed as ordering phase.
+     * 
+     * @return Returns the statistics of this triangulator.
+     */
+    public TriangulationStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Returns true if the engines count into the statistics.
+     * 
+     * @return Returns true if the statistics are enabled.
+     */
+    public boolean isStatisticsEnabled() {
+        return statisticsEnabled;
+    }
+
+    /**
+     * Enables or disables the statistics. Disabled statistics keep their
+     * values, the engines stop counting and the listener is no longer
+     * notified.
+     * 
+     * @param statisticsEnabled
+     *            True to count, false to stop counting
+     */
+    public void setStatisticsEnabled(boolean statisticsEnabled) {
+        this.statisticsEnabled = statisticsEnabled;
+        incrementalEngine.setStatistics(statisticsEnabled ? statistics : null);
+    }
+
+    /**
+     * Returns the listener notified about finished phases and triangulations.
+     * 
+     * @return Returns the listener or null.
+     */
+    public TriangulationListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Sets the listener notified about finished phases and triangulations.
+     * The phases of a triangulation are reported once it is finished, the
+     * ordering of the point set right away. The counters are kept without a
+     * listener as well, the listener only adds a copy of the statistics per
+     * triangulation.
+     * 
+     * @param listener
+     *            The listener, null to remove it
+     */
+    public void setListener(TriangulationListener listener) {
+        this.listener = listener;
+    }
+
     /**
      * Returns the trianges of the triangulation in form of a vector of 2D
      * triangles.
@@ -265,6 +620,7 @@ public class DelaunayTriangulator {
      * @return Returns the triangles of the triangulation.
      */
     public TriangleSoup getTriangleSoup() {
+        buildTriangleSoup();
         return triangleSoup;
     }
 
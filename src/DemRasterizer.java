@@ -0,0 +1,348 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Headless raster engine turning a triangulation into a digital elevation
+ * model. The grid has its first cell at the origin and the given step between
+ * neighbouring cells, cell (row, column) samples the point (originX + column *
+ * step, originY + row * step) and is stored at index row * width + column.
+ * Every triangle is scanned row by row and the cells inside it are set from
+ * its plane, the same plane {@link Triangle#getDepth(double, double)} uses.
+ * The rows are split into tiles that are filled in parallel. Cells not
+ * covered by any triangle hold {@link #NO_DATA}.
+ */
+public final class DemRasterizer {
+
+    /**
+     * The value of cells outside of the triangulation.
+     */
+    public static final float NO_DATA = Float.NaN;
+
+    /**
+     * Number of grid rows per parallel tile.
+     */
+    private static final int TILE_ROWS = 32;
+
+    /**
+     * Grids with fewer cells are filled on the current thread.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /**
+     * Cells within this fraction of a step outside a triangle still count as
+     * inside, so rounding does not open gaps along shared edges.
+     */
+    private static final double EDGE_TOLERANCE = 1e-7d;
+
+    /**
+     * The largest number of cells of a grid, the largest array length the
+     * virtual machines reliably allocate.
+     */
+    private static final int MAX_CELLS = Integer.MAX_VALUE - 8;
+
+    private final double originX;
+    private final double originY;
+    private final double step;
+    private final int width;
+    private final int height;
+
+    /**
+     * Constructor of the DEM rasterizer class used to create a new rasterizer
+     * for a grid.
+     *
+     * @param originX
+     *            The x coordinate of the first cell
+     * @param originY
+     *            The y coordinate of the first cell
+     * @param step
+     *            The distance between neighbouring cells
+     * @param width
+     *            The number of columns
+     * @param height
+     *            The number of rows
+     * @throws IllegalArgumentException
+     *             Thrown if the step is not positive, a dimension is negative
+     *             or the grid has more cells than fit into an array
+     */
+    public DemRasterizer(double originX, double originY, double step, int width, int height) {
+        if (step <= 0.0d || width < 0 || height < 0) {
+            throw new IllegalArgumentException("Invalid grid geometry.");
+        }
+        if ((long) width * height > MAX_CELLS) {
+            throw new IllegalArgumentException("Grid of " + width + " x " + height + " cells exceeds the maximum of "
+                    + MAX_CELLS + " cells.");
+        }
+        this.originX = originX;
+        this.originY = originY;
+        this.step = step;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Rasterizes the triangles of a triangle soup.
+     *
+     * @param triangleSoup
+     *            The triangle soup
+     * @return Returns the elevation grid, row by row
+     */
+    public float[] rasterize(TriangleSoup triangleSoup) {
+        double[] vertices = new double[9 * triangleSoup.size()];
+        int offset = 0;
+        for (Triangle triangle : triangleSoup) {
+            offset = put(vertices, offset, triangle.a.x, triangle.a.y, triangle.a.z);
+            offset = put(vertices, offset, triangle.b.x, triangle.b.y, triangle.b.z);
+            offset = put(vertices, offset, triangle.c.x, triangle.c.y, triangle.c.z);
+        }
+        return rasterize(vertices, offset / 9);
+    }
+
+    /**
+     * Rasterizes the triangles of an indexed mesh.
+     *
+     * @param mesh
+     *            The indexed mesh
+     * @return Returns the elevation grid, row by row
+     */
+    public float[] rasterize(IndexedMesh mesh) {
+        double[] vertices = new double[9 * mesh.triangleCount];
+        int offset = 0;
+        for (int i = 0; i < 3 * mesh.triangleCount; i++) {
+            int vertex = mesh.triangles[i];
+            offset = put(vertices, offset, mesh.x[vertex], mesh.y[vertex], mesh.z[vertex]);
+        }
+        return rasterize(vertices, mesh.triangleCount);
+    }
+
+    private static int put(double[] vertices, int offset, double x, double y, double z) {
+        vertices[offset] = x;
+        vertices[offset + 1] = y;
+        vertices[offset + 2] = z;
+        return offset + 3;
+    }
+
+    /**
+     * Rasterizes triangles given as nine coordinates each. The triangles are
+     * sorted into the tiles their rows overlap, then every tile scans its
+     * triangles independently of the others.
+     */
+    private float[] rasterize(final double[] vertices, int triangleCount) {
+        final float[] grid = new float[width * height];
+        Arrays.fill(grid, NO_DATA);
+        if (grid.length == 0) {
+            return grid;
+        }
+
+        int tileCount = (height + TILE_ROWS - 1) / TILE_ROWS;
+        final int[] tileStart = new int[tileCount + 1];
+
+        for (int t = 0; t < triangleCount; t++) {
+            int firstTile = firstRow(vertices, t) / TILE_ROWS;
+            int lastTile = lastRow(vertices, t) / TILE_ROWS;
+            for (int tile = firstTile; tile <= lastTile; tile++) {
+                tileStart[tile + 1]++;
+            }
+        }
+        for (int tile = 0; tile < tileCount; tile++) {
+            tileStart[tile + 1] += tileStart[tile];
+        }
+
+        final int[] tileTriangles = new int[tileStart[tileCount]];
+        int[] fill = Arrays.copyOf(tileStart, tileCount);
+        for (int t = 0; t < triangleCount; t++) {
+            int firstTile = firstRow(vertices, t) / TILE_ROWS;
+            int lastTile = lastRow(vertices, t) / TILE_ROWS;
+            for (int tile = firstTile; tile <= lastTile; tile++) {
+                tileTriangles[fill[tile]++] = t;
+            }
+        }
+
+        IntStream tiles = IntStream.range(0, tileCount);
+        if (grid.length >= PARALLEL_THRESHOLD) {
+            tiles = tiles.parallel();
+        }
+        tiles.forEach(tile -> {
+            int fromRow = tile * TILE_ROWS;
+            int toRow = Math.min(fromRow + TILE_ROWS, height) - 1;
+            for (int i = tileStart[tile]; i < tileStart[tile + 1]; i++) {
+                scan(vertices, tileTriangles[i], fromRow, toRow, grid);
+            }
+        });
+
+        return grid;
+    }
+
+    /**
+     * Returns the first grid row the triangle may cover, clamped to the grid.
+     * Triangles entirely above or below the grid return a row after their
+     * last row.
+     */
+    private int firstRow(double[] vertices, int t) {
+        int offset = 9 * t;
+        double minY = Math.min(vertices[offset + 1], Math.min(vertices[offset + 4], vertices[offset + 7]));
+        double maxY = Math.max(vertices[offset + 1], Math.max(vertices[offset + 4], vertices[offset + 7]));
+        if ((maxY - originY) / step < -EDGE_TOLERANCE || (minY - originY) / step > height - 1 + EDGE_TOLERANCE) {
+            return Integer.MAX_VALUE - TILE_ROWS;
+        }
+        return Math.max((int) Math.ceil((minY - originY) / step - EDGE_TOLERANCE), 0);
+    }
+
+    /**
+     * Returns the last grid row the triangle may cover, clamped to the grid.
+     */
+    private int lastRow(double[] vertices, int t) {
+        int offset = 9 * t;
+        double minY = Math.min(vertices[offset + 1], Math.min(vertices[offset + 4], vertices[offset + 7]));
+        double maxY = Math.max(vertices[offset + 1], Math.max(vertices[offset + 4], vertices[offset + 7]));
+        if ((maxY - originY) / step < -EDGE_TOLERANCE || (minY - originY) / step > height - 1 + EDGE_TOLERANCE) {
+            return -TILE_ROWS;
+        }
+        return Math.min((int) Math.floor((maxY - originY) / step + EDGE_TOLERANCE), height - 1);
+    }
+
+    /**
+     * Fills the cells of the rows [fromRow, toRow] inside the triangle. Every
+     * row intersects the triangle in a span between two of its edges, the
+     * cells of the span are set from the plane of the triangle.
+     */
+    private void scan(double[] vertices, int t, int fromRow, int toRow, float[] grid) {
+        int offset = 9 * t;
+        double ax = vertices[offset];
+        double ay = vertices[offset + 1];
+        double az = vertices[offset + 2];
+        double bx = vertices[offset + 3];
+        double by = vertices[offset + 4];
+        double bz = vertices[offset + 5];
+        double cx = vertices[offset + 6];
+        double cy = vertices[offset + 7];
+        double cz = vertices[offset + 8];
+
+        /**
+         * The normal (a - b) x (a - c) of the plane, see Triangle#getDepth.
+         */
+        double ux = ax - bx;
+        double uy = ay - by;
+        double uz = az - bz;
+        double vx = ax - cx;
+        double vy = ay - cy;
+        double vz = az - cz;
+        double nx = uz * vy - uy * vz;
+        double ny = ux * vz - uz * vx;
+        double nz = uy * vx - ux * vy;
+
+        if (nz == 0.0d) {
+            return;
+        }
+
+        double slopeX = -nx / nz;
+        double slopeY = -ny / nz;
+
+        int firstRow = Math.max(firstRow(vertices, t), fromRow);
+        int lastRow = Math.min(lastRow(vertices, t), toRow);
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            double y = originY + row * step;
+            double minX = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY;
+
+            double x = crossing(ax, ay, bx, by, y);
+            if (x < minX) {
+                minX = x;
+            }
+            if (x > maxX) {
+                maxX = x;
+            }
+            x = crossing(bx, by, cx, cy, y);
+            if (x < minX) {
+                minX = x;
+            }
+            if (x > maxX) {
+                maxX = x;
+            }
+            x = crossing(cx, cy, ax, ay, y);
+            if (x < minX) {
+                minX = x;
+            }
+            if (x > maxX) {
+                maxX = x;
+            }
+
+            if (minX > maxX) {
+                continue;
+            }
+
+            int firstColumn = Math.max((int) Math.ceil((minX - originX) / step - EDGE_TOLERANCE), 0);
+            int lastColumn = Math.min((int) Math.floor((maxX - originX) / step + EDGE_TOLERANCE), width - 1);
+
+            int cell = row * width + firstColumn;
+            double rowDepth = az + slopeY * (y - ay);
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                grid[cell++] = (float) (rowDepth + slopeX * (originX + column * step - ax));
+            }
+        }
+    }
+
+    /**
+     * Returns the x coordinate where the edge crosses the horizontal line at
+     * y, NaN if it does not cross it. NaN fails every comparison, so it never
+     * widens the span. An edge lying on the line is skipped,
+     * the other two edges of the triangle cross the line at its vertices.
+     */
+    private double crossing(double px, double py, double qx, double qy, double y) {
+        double tolerance = EDGE_TOLERANCE * step;
+        if ((py < y - tolerance && qy < y - tolerance) || (py > y + tolerance && qy > y + tolerance)) {
+            return Double.NaN;
+        }
+        if (Math.abs(qy - py) <= tolerance) {
+            return Double.NaN;
+        }
+        double f = Math.min(Math.max((y - py) / (qy - py), 0.0d), 1.0d);
+        return px + f * (qx - px);
+    }
+
+    /**
+     * Returns the x coordinate of the first column.
+     *
+     * @return Returns the x coordinate of the first column
+     */
+    public double getOriginX() {
+        return originX;
+    }
+
+    /**
+     * Returns the y coordinate of the first row.
+     *
+     * @return Returns the y coordinate of the first row
+     */
+    public double getOriginY() {
+        return originY;
+    }
+
+    /**
+     * Returns the distance between neighbouring cells.
+     *
+     * @return Returns the distance between neighbouring cells
+     */
+    public double getStep() {
+        return step;
+    }
+
+    /**
+     * Returns the number of columns.
+     *
+     * @return Returns the number of columns
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return Returns the number of rows
+     */
+    public int getHeight() {
+        return height;
+    }
+
+}
@@ -0,0 +1,239 @@
+import java.util.stream.IntStream;
+
+/**
+ * Query service interpolating the depth of arbitrary points from an indexed
+ * mesh. The plane of every triangle is computed once and stored as two
+ * primitive slopes, so a query allocates nothing. Single queries are located
+ * with a {@link TriangleGridIndex}, every query of a batch walks from the
+ * triangle of the previous query, which makes sorted or nearby queries cost
+ * close to constant time each. A walk that leaves the mesh, for example
+ * across a concave boundary of a filtered mesh, falls back to the index.
+ * Instances are immutable and may be shared between threads.
+ */
+public final class DepthInterpolator {
+
+    /**
+     * The depth reported for points outside of the mesh.
+     */
+    public static final double NO_DATA = Double.NaN;
+
+    /**
+     * Number of queries every task of a parallel batch handles.
+     */
+    private static final int PARALLEL_CHUNK = 1 << 12;
+
+    private final IndexedMesh mesh;
+    private final TriangleGridIndex index;
+    private final double[] slopes;
+    private final byte[] windings;
+
+    /**
+     * Constructor of the depth interpolator class used to create a new
+     * interpolator for a mesh. The mesh must not be changed afterwards.
+     *
+     * @param mesh
+     *            The mesh, which may have holes and concave boundaries
+     */
+    public DepthInterpolator(IndexedMesh mesh) {
+        this(mesh, new TriangleGridIndex(mesh));
+    }
+
+    /**
+     * Constructor of the depth interpolator class used to create a new
+     * interpolator sharing an existing index of the mesh.
+     *
+     * @param mesh
+     *            The mesh, which may have holes and concave boundaries
+     * @param index
+     *            The index of the mesh
+     */
+    public DepthInterpolator(IndexedMesh mesh, TriangleGridIndex index) {
+        if (index.getMesh() != mesh) {
+            throw new IllegalArgumentException("Index was built for another mesh.");
+        }
+        this.mesh = mesh;
+        this.index = index;
+        this.slopes = new double[2 * mesh.triangleCount];
+        this.windings = new byte[mesh.triangleCount];
+
+        double[] x = mesh.x;
+        double[] y = mesh.y;
+        double[] z = mesh.z;
+        int[] triangles = mesh.triangles;
+
+        for (int t = 0; t < mesh.triangleCount; t++) {
+            int a = triangles[3 * t];
+            int b = triangles[3 * t + 1];
+            int c = triangles[3 * t + 2];
+
+            /**
+             * The normal (a - b) x (a - c) of the plane, see Triangle#getDepth.
+             */
+            double ux = x[a] - x[b];
+            double uy = y[a] - y[b];
+            double uz = z[a] - z[b];
+            double vx = x[a] - x[c];
+            double vy = y[a] - y[c];
+            double vz = z[a] - z[c];
+            double nx = uz * vy - uy * vz;
+            double ny = ux * vz - uz * vx;
+            double nz = uy * vx - ux * vy;
+
+            if (nz != 0.0d) {
+                slopes[2 * t] = -nx / nz;
+                slopes[2 * t + 1] = -ny / nz;
+            }
+            windings[t] = (byte) Math.signum(Predicates.orientation(x[a], y[a], x[b], y[b], x[c], y[c]));
+        }
+    }
+
+    /**
+     * Interpolates the depth at a single point.
+     *
+     * @param x
+     *            The x coordinate of the point
+     * @param y
+     *            The y coordinate of the point
+     * @return Returns the depth or {@link #NO_DATA} if the point lies outside
+     *         of the mesh
+     */
+    public double interpolate(double x, double y) {
+        int triangle = index.locate(x, y);
+        return triangle < 0 ? NO_DATA : depth(triangle, x, y);
+    }
+
+    /**
+     * Interpolates the depths at a batch of points. The point i is (x[i],
+     * y[i]) and its depth is written to depths[i], or {@link #NO_DATA} if it
+     * lies outside of the mesh.
+     *
+     * @param x
+     *            The x coordinates of the points
+     * @param y
+     *            The y coordinates of the points
+     * @param depths
+     *            The array receiving the depths
+     */
+    public void interpolate(double[] x, double[] y, double[] depths) {
+        interpolate(x, y, depths, 0, x.length);
+    }
+
+    /**
+     * Interpolates the depths at the points with indices in [from, to) of a
+     * batch.
+     *
+     * @param x
+     *            The x coordinates of the points
+     * @param y
+     *            The y coordinates of the points
+     * @param depths
+     *            The array receiving the depths
+     * @param from
+     *            The index of the first point
+     * @param to
+     *            The index after the last point
+     */
+    public void interpolate(double[] x, double[] y, double[] depths, int from, int to) {
+        if (y.length < to || depths.length < to || x.length < to) {
+            throw new IllegalArgumentException("Coordinate or depth array is shorter than the batch.");
+        }
+
+        int triangle = 0;
+        for (int i = from; i < to; i++) {
+            int found = locate(triangle, x[i], y[i]);
+            if (found < 0) {
+                depths[i] = NO_DATA;
+            } else {
+                depths[i] = depth(found, x[i], y[i]);
+                triangle = found;
+            }
+        }
+    }
+
+    /**
+     * Interpolates the depths at a batch of points in parallel. The batch is
+     * split into chunks of consecutive points, every chunk walks on its own,
+     * so the batch should be sorted spatially.
+     *
+     * @param x
+     *            The x coordinates of the points
+     * @param y
+     *            The y coordinates of the points
+     * @param depths
+     *            The array receiving the depths
+     */
+    public void interpolateParallel(final double[] x, final double[] y, final double[] depths) {
+        final int size = x.length;
+        IntStream.range(0, (size + PARALLEL_CHUNK - 1) / PARALLEL_CHUNK).parallel().forEach(chunk -> {
+            int from = chunk * PARALLEL_CHUNK;
+            interpolate(x, y, depths, from, Math.min(from + PARALLEL_CHUNK, size));
+        });
+    }
+
+    private double depth(int triangle, double x, double y) {
+        int anchor = mesh.triangles[3 * triangle];
+        return mesh.z[anchor] + slopes[2 * triangle] * (x - mesh.x[anchor])
+                + slopes[2 * triangle + 1] * (y - mesh.y[anchor]);
+    }
+
+    /**
+     * Returns the triangle containing the point, either inside or on its
+     * boundary, or -1 if the point lies outside of the mesh. The walk starts
+     * at the given triangle and steps across the first edge separating the
+     * current triangle from the point. If the walk reaches the boundary of
+     * the mesh or does not terminate, the point is looked up in the index,
+     * since it may still lie inside a non-convex mesh.
+     */
+    private int locate(int start, double px, double py) {
+        if (mesh.triangleCount == 0) {
+            return -1;
+        }
+
+        double[] x = mesh.x;
+        double[] y = mesh.y;
+        int[] triangles = mesh.triangles;
+        int[] neighbours = mesh.neighbours;
+
+        int triangle = start;
+        int previous = IndexedMesh.NO_NEIGHBOUR;
+
+        for (int step = 0; step <= mesh.triangleCount; step++) {
+            int offset = 3 * triangle;
+            int next = triangle;
+
+            for (int k = 0; k < 3; k++) {
+                int neighbour = neighbours[offset + k];
+                if (neighbour == previous && previous != IndexedMesh.NO_NEIGHBOUR) {
+                    continue;
+                }
+                int a = triangles[offset + (k + 1) % 3];
+                int b = triangles[offset + (k + 2) % 3];
+                if (Predicates.orientation(x[a], y[a], x[b], y[b], px, py) * windings[triangle] < 0.0d) {
+                    next = neighbour;
+                    break;
+                }
+            }
+
+            if (next == triangle) {
+                return triangle;
+            }
+            if (next == IndexedMesh.NO_NEIGHBOUR) {
+                return index.locate(px, py);
+            }
+            previous = triangle;
+            triangle = next;
+        }
+
+        return index.locate(px, py);
+    }
+
+    /**
+     * Returns the mesh the depths are interpolated from.
+     *
+     * @return Returns the mesh
+     */
+    public IndexedMesh getMesh() {
+        return mesh;
+    }
+
+}
@@ -0,0 +1,500 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A Java implementation of the divide and conquer Delaunay triangulation
+ * algorithm of Guibas and Stolfi, Primitives for the Manipulation of General
+ * Subdivisions and the Computation of Voronoi Diagrams. The points are sorted
+ * by x coordinate and split into halves, the halves are triangulated
+ * concurrently on a fork join pool, and neighbouring halves are stitched
+ * together by the Delaunay merge step. The result is converted into the same
+ * triangle soup the incremental triangulator produces, or written straight
+ * into an indexed mesh.
+ */
+public class DivideAndConquerTriangulator implements TriangulationEngine {
+
+    /**
+     * Subproblems with fewer points are solved on the current thread.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 12;
+
+    private static final Comparator<Point> X_ORDER = new Comparator<Point>() {
+        @Override
+        public int compare(Point p, Point q) {
+            int order = Double.compare(p.x, q.x);
+            return order != 0 ? order : Double.compare(p.y, q.y);
+        }
+    };
+
+    private final ForkJoinPool pool;
+    private TriangulationStatistics statistics;
+
+    /**
+     * Constructor of the divide and conquer triangulator class used to create
+     * a new triangulator running on the common fork join pool.
+     */
+    public DivideAndConquerTriangulator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor of the divide and conquer triangulator class used to create
+     * a new triangulator running on the given fork join pool.
+     *
+     * @param pool
+     *            The pool the subproblems are solved on
+     */
+    public DivideAndConquerTriangulator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * This method generates a Delaunay triangulation from the specified point
+     * set. Points with the same coordinates as a previous point are skipped.
+     *
+     * @param pointSet
+     *            The point set to be triangulated
+     * @return Returns the triangles of the triangulation
+     * @throws NotEnoughPointsException
+     *             Thrown when the point set contains less than three distinct
+     *             points
+     */
+    @Override
+    public TriangleSoup triangulate(List<Point> pointSet) throws NotEnoughPointsException {
+        HalfEdge hull = subdivide(pointSet);
+        long start = System.nanoTime();
+        TriangleSoup triangleSoup = toTriangleSoup(collectTriangles(hull));
+        finish(start, triangleSoup.size());
+        return triangleSoup;
+    }
+
+    /**
+     * This method generates a Delaunay triangulation from the specified point
+     * set and writes it straight into an indexed mesh, no triangle objects
+     * are created. The index of a vertex in the mesh is the index of the
+     * point in the point set. Points with the same coordinates as a previous
+     * point are skipped and not used by any triangle.
+     *
+     * @param pointSet
+     *            The point set to be triangulated
+     * @return Returns the triangulation as indexed mesh
+     * @throws NotEnoughPointsException
+     *             Thrown when the point set contains less than three distinct
+     *             points
+     */
+    @Override
+    public IndexedMesh triangulateIndexed(List<Point> pointSet) throws NotEnoughPointsException {
+        HalfEdge hull = subdivide(pointSet);
+        long start = System.nanoTime();
+        IndexedMesh mesh = toIndexedMesh(collectTriangles(hull), pointSet);
+        finish(start, mesh.getTriangleCount());
+        return mesh;
+    }
+
+    /**
+     * Sets the statistics the triangulations of this engine are counted in.
+     * Sorting the points is timed as ordering, dividing and merging as
+     * insertion and the output as cleanup. The merge deletes edges instead of
+     * flipping them and does not locate points, so only the created
+     * triangles are counted.
+     *
+     * @param statistics
+     *            The statistics, null to stop counting
+     */
+    @Override
+    public void setStatistics(TriangulationStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * Sorts the distinct points and triangulates them, returning an edge of
+     * the convex hull of the subdivision.
+     */
+    private HalfEdge subdivide(List<Point> pointSet) throws NotEnoughPointsException {
+        long start = System.nanoTime();
+        Point[] points = pointSet.toArray(new Point[pointSet.size()]);
+        Arrays.parallelSort(points, X_ORDER);
+
+        int size = 0;
+        for (int i = 0; i < points.length; i++) {
+            if (size == 0 || points[i].x != points[size - 1].x || points[i].y != points[size - 1].y) {
+                points[size++] = points[i];
+            }
+        }
+
+        if (size < 3) {
+            throw new NotEnoughPointsException("Less than three distinct points in point set.");
+        }
+
+        long sorted = System.nanoTime();
+        HalfEdge hull = pool.invoke(new TriangulationTask(points, 0, size))[0];
+        if (statistics != null) {
+            statistics.addTime(TriangulationStatistics.Phase.ORDERING, sorted - start);
+            statistics.addTime(TriangulationStatistics.Phase.INSERTION, System.nanoTime() - sorted);
+        }
+        return hull;
+    }
+
+    /**
+     * Counts a finished triangulation whose output was started at the given
+     * time.
+     */
+    private void finish(long start, int triangleCount) {
+        if (statistics != null) {
+            statistics.addTime(TriangulationStatistics.Phase.CLEANUP, System.nanoTime() - start);
+            statistics.trianglesCreated += triangleCount;
+            statistics.triangulations++;
+        }
+    }
+
+    /**
+     * Triangulates the sorted points in the range [from, to) and returns the
+     * counterclockwise convex hull edge leaving the leftmost point and the
+     * clockwise convex hull edge leaving the rightmost point.
+     */
+    private static HalfEdge[] triangulate(Point[] points, int from, int to) {
+        int size = to - from;
+
+        if (size == 2) {
+            HalfEdge a = makeEdge(points[from], points[from + 1]);
+            return new HalfEdge[] { a, a.sym };
+        }
+
+        if (size == 3) {
+            Point s1 = points[from];
+            Point s2 = points[from + 1];
+            Point s3 = points[from + 2];
+            HalfEdge a = makeEdge(s1, s2);
+            HalfEdge b = makeEdge(s2, s3);
+            splice(a.sym, b);
+
+            if (ccw(s1, s2, s3)) {
+                connect(b, a);
+                return new HalfEdge[] { a, b.sym };
+            } else if (ccw(s1, s3, s2)) {
+                HalfEdge c = connect(b, a);
+                return new HalfEdge[] { c.sym, c };
+            }
+            return new HalfEdge[] { a, b.sym };
+        }
+
+        int middle = from + size / 2;
+        HalfEdge[] left = triangulate(points, from, middle);
+        HalfEdge[] right = triangulate(points, middle, to);
+        return merge(left, right);
+    }
+
+    /**
+     * Merges the triangulations of two horizontally separated point sets.
+     * First the lower common tangent of both convex hulls is found, then the
+     * merge walks upwards and adds the cross edges between the halves, deleting
+     * the edges of either half that are no longer Delaunay.
+     */
+    private static HalfEdge[] merge(HalfEdge[] left, HalfEdge[] right) {
+        HalfEdge ldo = left[0];
+        HalfEdge ldi = left[1];
+        HalfEdge rdi = right[0];
+        HalfEdge rdo = right[1];
+
+        while (true) {
+            if (leftOf(rdi.origin, ldi)) {
+                ldi = ldi.lnext();
+            } else if (rightOf(ldi.origin, rdi)) {
+                rdi = rdi.rprev();
+            } else {
+                break;
+            }
+        }
+
+        HalfEdge basel = connect(rdi.sym, ldi);
+        if (ldi.origin == ldo.origin) {
+            ldo = basel.sym;
+        }
+        if (rdi.origin == rdo.origin) {
+            rdo = basel;
+        }
+
+        while (true) {
+            HalfEdge lcand = basel.sym.onext;
+            if (valid(lcand, basel)) {
+                while (inCircle(basel.dest(), basel.origin, lcand.dest(), lcand.onext.dest())) {
+                    HalfEdge next = lcand.onext;
+                    deleteEdge(lcand);
+                    lcand = next;
+                }
+            }
+
+            HalfEdge rcand = basel.oprev;
+            if (valid(rcand, basel)) {
+                while (inCircle(basel.dest(), basel.origin, rcand.dest(), rcand.oprev.dest())) {
+                    HalfEdge next = rcand.oprev;
+                    deleteEdge(rcand);
+                    rcand = next;
+                }
+            }
+
+            boolean lvalid = valid(lcand, basel);
+            boolean rvalid = valid(rcand, basel);
+            if (!lvalid && !rvalid) {
+                break;
+            }
+
+            if (!lvalid || (rvalid && inCircle(lcand.dest(), lcand.origin, rcand.origin, rcand.dest()))) {
+                basel = connect(rcand, basel.sym);
+            } else {
+                basel = connect(basel.sym, lcand.sym);
+            }
+        }
+
+        return new HalfEdge[] { ldo, rdo };
+    }
+
+    /**
+     * Numbers the triangles of the subdivision reachable from the given edge.
+     * Every bounded counterclockwise face with three edges is a triangle, its
+     * number is stored in its edges. Returns the first edge of every triangle
+     * in the order of their numbers.
+     */
+    private static List<HalfEdge> collectTriangles(HalfEdge start) {
+        List<HalfEdge> edges = new ArrayList<HalfEdge>();
+        Deque<HalfEdge> stack = new ArrayDeque<HalfEdge>();
+        start.visited = true;
+        stack.push(start);
+
+        while (!stack.isEmpty()) {
+            HalfEdge edge = stack.pop();
+            edges.add(edge);
+            if (!edge.sym.visited) {
+                edge.sym.visited = true;
+                stack.push(edge.sym);
+            }
+            if (!edge.onext.visited) {
+                edge.onext.visited = true;
+                stack.push(edge.onext);
+            }
+        }
+
+        List<HalfEdge> triangles = new ArrayList<HalfEdge>();
+        for (HalfEdge edge : edges) {
+            if (edge.face != IndexedMesh.NO_NEIGHBOUR) {
+                continue;
+            }
+            HalfEdge second = edge.lnext();
+            HalfEdge third = second.lnext();
+            if (third.lnext() == edge && ccw(edge.origin, second.origin, third.origin)) {
+                int face = triangles.size();
+                edge.face = face;
+                second.face = face;
+                third.face = face;
+                triangles.add(edge);
+            }
+        }
+
+        return triangles;
+    }
+
+    /**
+     * Converts the numbered triangles into a triangle soup, triangles sharing
+     * an edge become neighbours.
+     */
+    private static TriangleSoup toTriangleSoup(List<HalfEdge> triangles) {
+        Triangle[] objects = new Triangle[triangles.size()];
+        for (int t = 0; t < objects.length; t++) {
+            HalfEdge edge = triangles.get(t);
+            HalfEdge second = edge.lnext();
+            objects[t] = new Triangle(edge.origin, second.origin, second.lnext().origin);
+        }
+
+        TriangleSoup triangleSoup = new TriangleSoup();
+        for (int t = 0; t < objects.length; t++) {
+            HalfEdge edge = triangles.get(t);
+            HalfEdge second = edge.lnext();
+            HalfEdge third = second.lnext();
+            objects[t].neighbourOppositeA = face(objects, second.sym);
+            objects[t].neighbourOppositeB = face(objects, third.sym);
+            objects[t].neighbourOppositeC = face(objects, edge.sym);
+            triangleSoup.add(objects[t]);
+        }
+
+        return triangleSoup;
+    }
+
+    private static Triangle face(Triangle[] objects, HalfEdge edge) {
+        return edge.face == IndexedMesh.NO_NEIGHBOUR ? null : objects[edge.face];
+    }
+
+    /**
+     * Writes the numbered triangles into an indexed mesh whose vertex indices
+     * are the indices of the point set.
+     */
+    private static IndexedMesh toIndexedMesh(List<HalfEdge> triangles, List<Point> pointSet) {
+        int vertexCount = pointSet.size();
+        double[] x = new double[vertexCount];
+        double[] y = new double[vertexCount];
+        double[] z = new double[vertexCount];
+        Map<Point, Integer> vertexIndices = new IdentityHashMap<Point, Integer>(vertexCount);
+
+        for (int i = 0; i < vertexCount; i++) {
+            Point point = pointSet.get(i);
+            x[i] = point.x;
+            y[i] = point.y;
+            z[i] = point.z;
+            vertexIndices.put(point, i);
+        }
+
+        int triangleCount = triangles.size();
+        int[] vertices = new int[3 * triangleCount];
+        int[] neighbours = new int[3 * triangleCount];
+        for (int t = 0; t < triangleCount; t++) {
+            HalfEdge edge = triangles.get(t);
+            HalfEdge second = edge.lnext();
+            HalfEdge third = second.lnext();
+            int offset = 3 * t;
+            vertices[offset] = vertexIndices.get(edge.origin);
+            vertices[offset + 1] = vertexIndices.get(second.origin);
+            vertices[offset + 2] = vertexIndices.get(third.origin);
+            neighbours[offset] = second.sym.face;
+            neighbours[offset + 1] = third.sym.face;
+            neighbours[offset + 2] = edge.sym.face;
+        }
+
+        return new IndexedMesh(vertexCount, x, y, z, triangleCount, vertices, neighbours);
+    }
+
+    private static boolean ccw(Point a, Point b, Point c) {
+        return Predicates.orientation(a.x, a.y, b.x, b.y, c.x, c.y) > 0.0d;
+    }
+
+    private static boolean rightOf(Point point, HalfEdge edge) {
+        return ccw(point, edge.dest(), edge.origin);
+    }
+
+    private static boolean leftOf(Point point, HalfEdge edge) {
+        return ccw(point, edge.origin, edge.dest());
+    }
+
+    private static boolean valid(HalfEdge edge, HalfEdge basel) {
+        return rightOf(edge.dest(), basel);
+    }
+
+    /**
+     * Tests if d lies strictly inside the circle through the counterclockwise
+     * triangle abc.
+     */
+    private static boolean inCircle(Point a, Point b, Point c, Point d) {
+        return Predicates.inCircle(a.x, a.y, b.x, b.y, c.x, c.y, d.x, d.y) > 0.0d;
+    }
+
+    private static HalfEdge makeEdge(Point origin, Point destination) {
+        HalfEdge edge = new HalfEdge(origin);
+        HalfEdge sym = new HalfEdge(destination);
+        edge.sym = sym;
+        sym.sym = edge;
+        return edge;
+    }
+
+    /**
+     * Joins or separates the edge rings around the origins of a and b.
+     */
+    private static void splice(HalfEdge a, HalfEdge b) {
+        HalfEdge aNext = a.onext;
+        HalfEdge bNext = b.onext;
+        a.onext = bNext;
+        b.onext = aNext;
+        aNext.oprev = b;
+        bNext.oprev = a;
+    }
+
+    /**
+     * Adds an edge from the destination of a to the origin of b, such that
+     * all three edges share the same left face.
+     */
+    private static HalfEdge connect(HalfEdge a, HalfEdge b) {
+        HalfEdge edge = makeEdge(a.dest(), b.origin);
+        splice(edge, a.lnext());
+        splice(edge.sym, b);
+        return edge;
+    }
+
+    private static void deleteEdge(HalfEdge edge) {
+        splice(edge, edge.oprev);
+        splice(edge.sym, edge.sym.oprev);
+    }
+
+    /**
+     * Directed edge of the quad edge data structure, reduced to the primal
+     * subdivision. The edges leaving a vertex form a ring linked in both
+     * directions by onext and oprev.
+     */
+    private static final class HalfEdge {
+
+        final Point origin;
+        HalfEdge sym;
+        HalfEdge onext = this;
+        HalfEdge oprev = this;
+
+        int face = IndexedMesh.NO_NEIGHBOUR;
+        boolean visited;
+
+        HalfEdge(Point origin) {
+            this.origin = origin;
+        }
+
+        Point dest() {
+            return sym.origin;
+        }
+
+        HalfEdge lnext() {
+            return sym.oprev;
+        }
+
+        HalfEdge rprev() {
+            return sym.onext;
+        }
+
+    }
+
+    /**
+     * Triangulates a range of the sorted points, forking both halves of large
+     * ranges.
+     */
+    private static final class TriangulationTask extends RecursiveTask<HalfEdge[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Point[] points;
+        private final int from;
+        private final int to;
+
+        TriangulationTask(Point[] points, int from, int to) {
+            this.points = points;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected HalfEdge[] compute() {
+            if (to - from < SEQUENTIAL_THRESHOLD) {
+                return triangulate(points, from, to);
+            }
+
+            int middle = from + (to - from) / 2;
+            TriangulationTask left = new TriangulationTask(points, from, middle);
+            TriangulationTask right = new TriangulationTask(points, middle, to);
+            left.fork();
+            HalfEdge[] rightHull = right.compute();
+            HalfEdge[] leftHull = left.join();
+            return merge(leftHull, rightHull);
+        }
+
+    }
+
+}
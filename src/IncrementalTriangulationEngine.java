@@ -0,0 +1,1340 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A Java implementation of an incremental 2D Delaunay triangulation algorithm.
+ * The points are inserted one after the other, starting from the first
+ * triangle of the point set. Every new point splits the triangle or edge it
+ * lies on, or is connected to the convex hull edges it can see if it lies
+ * outside, and the edges around the new point are legalized by flipping.
+ */
+public class IncrementalTriangulationEngine implements TriangulationEngine {
+
+    private TriangleSoup triangleSoup;
+    private PointLocator pointLocator;
+    private Triangle lastCreatedTriangle;
+    private Point hullVertex;
+
+    /**
+     * The constrained neighbours of every vertex with constrained edges.
+     */
+    private final Map<Point, List<Point>> constraints = new IdentityHashMap<Point, List<Point>>();
+
+    private Triangle[] edgeStackTriangles = new Triangle[64];
+    private Point[] edgeStackA = new Point[64];
+    private Point[] edgeStackB = new Point[64];
+    private int edgeStackSize;
+
+    private int lastInsertionFlipCount;
+    private long flipCount;
+
+    private TriangulationStatistics statistics;
+
+    /**
+     * Constructor of the incremental triangulation engine class used to create
+     * a new engine locating points by walking.
+     */
+    public IncrementalTriangulationEngine() {
+        this.triangleSoup = new TriangleSoup();
+        this.pointLocator = new PointLocator();
+    }
+
+    @Override
+    public TriangleSoup triangulate(List<Point> pointSet) throws NotEnoughPointsException {
+        long start = System.nanoTime();
+        triangleSoup = new TriangleSoup();
+        constraints.clear();
+        flipCount = 0;
+
+        if (pointSet == null || pointSet.size() < 3) {
+            throw new NotEnoughPointsException("Less than three points in point set.");
+        }
+
+        /**
+         * Start out with the first triangle of the point set that is not
+         * degenerate and grow the triangulation from there. Points outside
+         * of the current triangulation are connected to the convex hull
+         * edges they can see, so no bounding super triangle is needed and
+         * the coordinates of the points do not matter.
+         */
+        Point a = pointSet.get(0);
+        int second = 1;
+        while (second < pointSet.size() && pointSet.get(second).x == a.x && pointSet.get(second).y == a.y) {
+            second++;
+        }
+        int third = second + 1;
+        while (third < pointSet.size() && Predicates.orientation(a.x, a.y, pointSet.get(second).x,
+                pointSet.get(second).y, pointSet.get(third).x, pointSet.get(third).y) == 0.0d) {
+            third++;
+        }
+        if (third >= pointSet.size()) {
+            /**
+             * All points are collinear, there is no triangle to be found.
+             */
+            return triangleSoup;
+        }
+
+        Point b = pointSet.get(second);
+        Point c = pointSet.get(third);
+        if (Predicates.orientation(a.x, a.y, b.x, b.y, c.x, c.y) > 0.0d) {
+            addTriangle(new Triangle(a, b, c));
+        } else {
+            addTriangle(new Triangle(a, c, b));
+        }
+
+        for (int i = 1; i < pointSet.size(); i++) {
+            if (i != second && i != third) {
+                insertPoint(pointSet.get(i));
+            }
+        }
+        long insertionEnd = System.nanoTime();
+
+        triangleSoup.compact();
+        long cleanupEnd = System.nanoTime();
+
+        if (statistics != null) {
+            statistics.addTime(TriangulationStatistics.Phase.INSERTION, insertionEnd - start);
+            statistics.addTime(TriangulationStatistics.Phase.CLEANUP, cleanupEnd - insertionEnd);
+            statistics.triangulations++;
+        }
+
+        return triangleSoup;
+    }
+
+    /**
+     * Inserts a point into an existing Delaunay triangulation, for example
+     * one returned by {@link #triangulate(List)} of any engine. Points inside
+     * the triangulation split the triangle or edge they lie on, points outside
+     * of it are connected to all convex hull edges they can see. In both cases
+     * the new edges are legalized, so only the triangles around the new point
+     * are touched. If triangles were carved out of the triangulation, see
+     * {@link TriangleSoup#isConvex()}, only points inside of the remaining
+     * triangles are inserted.
+     * 
+     * @param triangleSoup
+     *            The triangles of the triangulation, changed in place
+     * @param point
+     *            The point to be inserted
+     * @return Returns true if the point was inserted, false if it coincides
+     *         with a vertex of the triangulation, lies outside of a
+     *         triangulation that is not convex or the triangulation is empty
+     */
+    public boolean insert(TriangleSoup triangleSoup, Point point) {
+        attach(triangleSoup);
+        return insertPoint(point);
+    }
+
+    /**
+     * Makes the triangle soup the current one and makes sure the next point
+     * location walk starts at one of its triangles.
+     */
+    private void attach(TriangleSoup triangleSoup) {
+        if (this.triangleSoup != triangleSoup) {
+            this.triangleSoup = triangleSoup;
+            lastCreatedTriangle = null;
+            constraints.clear();
+        }
+        if (lastCreatedTriangle == null || !triangleSoup.contains(lastCreatedTriangle)) {
+            lastCreatedTriangle = triangleSoup.isEmpty() ? null : triangleSoup.iterator().next();
+        }
+    }
+
+    /**
+     * Inserts a point into the current triangle soup.
+     * 
+     * @param point
+     *            The point to be inserted
+     * @return Returns true if the point was inserted
+     */
+    private boolean insertPoint(Point point) {
+        lastInsertionFlipCount = 0;
+        Triangle triangle = locate(point);
+
+        if (triangle == null) {
+            if (triangleSoup.isConvex()) {
+                return insertOutside(pointLocator.getExitTriangle(), point);
+            }
+
+            /**
+             * Points outside of a filtered triangulation are rejected,
+             * connecting them to its concave boundary could overlap other
+             * triangles.
+             */
+            return false;
+        }
+
+        if (triangle.hasVertexAt(point)) {
+            /**
+             * The point coincides with a vertex that has already been
+             * inserted, there is nothing to add.
+             */
+            return false;
+        }
+
+        Edge edge = triangle.findEdgeContaining(point);
+
+        if (edge != null) {
+            splitEdge(triangle, edge, point);
+        } else {
+            splitTriangle(triangle, point);
+        }
+        return true;
+    }
+
+    /**
+     * Removes a vertex from an existing Delaunay triangulation. The triangles
+     * around the vertex are removed and the polygon they leave is
+     * triangulated again by clipping Delaunay ears, so the work depends only
+     * on the degree of the vertex. If the vertex lies on the convex hull the
+     * ears are clipped until the rest of the polygon is convex and becomes
+     * part of the new hull. Constrained edges ending at the vertex are
+     * dropped together with it.
+     * 
+     * @param triangleSoup
+     *            The triangles of the triangulation, changed in place
+     * @param point
+     *            A point with the coordinates of the vertex to be removed
+     * @return Returns the removed vertex, or null if there is no vertex with
+     *         the coordinates of the point
+     */
+    public Point remove(TriangleSoup triangleSoup, Point point) {
+        attach(triangleSoup);
+
+        Triangle start = locate(point);
+        if (start == null || !start.hasVertexAt(point)) {
+            return null;
+        }
+
+        Point vertex = start.a;
+        if (start.b.x == point.x && start.b.y == point.y) {
+            vertex = start.b;
+        } else if (start.c.x == point.x && start.c.y == point.y) {
+            vertex = start.c;
+        }
+
+        /**
+         * Collect the triangles around the vertex and the polygon formed by
+         * their edges opposite to the vertex. The polygon is closed for inner
+         * vertices and open for vertices on the convex hull.
+         */
+        List<Triangle> star = new ArrayList<Triangle>();
+        List<Point> polygon = new ArrayList<Point>();
+        Point first = start.getNoneEdgeVertex(vertex, start.b == vertex ? start.c : start.b);
+        Point current = start.getNoneEdgeVertex(vertex, first);
+        star.add(start);
+        polygon.add(first);
+        polygon.add(current);
+
+        boolean closed = false;
+        Triangle triangle = start;
+        while (true) {
+            Triangle next = triangle.getNoneEdgeNeigbourTiangle(vertex, current);
+            if (next == null) {
+                break;
+            }
+            if (next == start) {
+                polygon.remove(polygon.size() - 1);
+                closed = true;
+                break;
+            }
+            current = next.getNoneEdgeVertex(vertex, current);
+            star.add(next);
+            polygon.add(current);
+            triangle = next;
+        }
+
+        if (!closed) {
+            /**
+             * Walk the other way round and put the triangles found in front,
+             * collected backwards and reversed once to keep the walk linear.
+             */
+            List<Triangle> backwardStar = new ArrayList<Triangle>();
+            List<Point> backwardPolygon = new ArrayList<Point>();
+            current = first;
+            triangle = start;
+            while (true) {
+                Triangle next = triangle.getNoneEdgeNeigbourTiangle(vertex, current);
+                if (next == null) {
+                    break;
+                }
+                current = next.getNoneEdgeVertex(vertex, current);
+                backwardStar.add(next);
+                backwardPolygon.add(current);
+                triangle = next;
+            }
+            Collections.reverse(backwardStar);
+            Collections.reverse(backwardPolygon);
+            backwardStar.addAll(star);
+            backwardPolygon.addAll(polygon);
+            star = backwardStar;
+            polygon = backwardPolygon;
+        }
+
+        /**
+         * The outer triangle of every polygon edge lies across the edge from
+         * the star triangle that owns it.
+         */
+        List<Triangle> outer = new ArrayList<Triangle>();
+        int edgeCount = closed ? polygon.size() : polygon.size() - 1;
+        for (int i = 0; i < edgeCount; i++) {
+            Point a = polygon.get(i);
+            Point b = polygon.get((i + 1) % polygon.size());
+            outer.add(star.get(i).getNoneEdgeNeigbourTiangle(a, b));
+        }
+
+        if (Predicates.orientation(polygon.get(0).x, polygon.get(0).y, polygon.get(1).x, polygon.get(1).y,
+                vertex.x, vertex.y) < 0.0d) {
+            reverse(polygon, outer, closed);
+        }
+
+        List<Triangle> created = new ArrayList<Triangle>();
+        List<Triangle> linkTriangles = new ArrayList<Triangle>();
+        List<Point> linkA = new ArrayList<Point>();
+        List<Point> linkB = new ArrayList<Point>();
+        List<Triangle> linkNeighbours = new ArrayList<Triangle>();
+
+        /**
+         * The polygon is kept as linked list, edge i runs from vertex i to
+         * its successor. Of all convex ears the one whose circumcircle has the
+         * largest power with respect to the removed vertex is a Delaunay ear
+         * (Devillers), so the ears wait in a heap ordered by their negated
+         * power and only the two ears next to a clipped one change. The
+         * polygon is retriangulated in O(d log d) for a vertex of degree d.
+         */
+        int size = polygon.size();
+        Point[] vertices = polygon.toArray(new Point[size]);
+        Triangle[] outerTriangles = outer.toArray(new Triangle[size]);
+        int[] previous = new int[size];
+        int[] following = new int[size];
+        for (int i = 0; i < size; i++) {
+            previous[i] = closed ? (i + size - 1) % size : i - 1;
+            following[i] = closed ? (i + 1) % size : i + 1 < size ? i + 1 : -1;
+        }
+        EarHeap ears = new EarHeap(size);
+        for (int i = 0; i < size; i++) {
+            updateEar(ears, vertices, previous, following, i, vertex);
+        }
+
+        int remaining = size;
+        int anchor = 0;
+        while (remaining > (closed ? 3 : 2)) {
+            int b = ears.poll();
+            if (b < 0) {
+                if (closed) {
+                    return null;
+                }
+                break;
+            }
+
+            int a = previous[b];
+            int c = following[b];
+            Triangle earTriangle = new Triangle(vertices[a], vertices[b], vertices[c]);
+            earTriangle.neighbourOppositeC = outerTriangles[a];
+            earTriangle.neighbourOppositeA = outerTriangles[b];
+            created.add(earTriangle);
+            addLink(linkTriangles, linkA, linkB, linkNeighbours, outerTriangles[a], vertices[a], vertices[b],
+                    earTriangle);
+            addLink(linkTriangles, linkA, linkB, linkNeighbours, outerTriangles[b], vertices[b], vertices[c],
+                    earTriangle);
+
+            outerTriangles[a] = earTriangle;
+            following[a] = c;
+            previous[c] = a;
+            remaining--;
+            if (anchor == b) {
+                anchor = c;
+            }
+            updateEar(ears, vertices, previous, following, a, vertex);
+            updateEar(ears, vertices, previous, following, c, vertex);
+        }
+
+        if (closed) {
+            int a = anchor;
+            int b = following[a];
+            int c = following[b];
+            Triangle last = new Triangle(vertices[a], vertices[b], vertices[c]);
+            last.neighbourOppositeC = outerTriangles[a];
+            last.neighbourOppositeA = outerTriangles[b];
+            last.neighbourOppositeB = outerTriangles[c];
+            created.add(last);
+            addLink(linkTriangles, linkA, linkB, linkNeighbours, outerTriangles[a], vertices[a], vertices[b], last);
+            addLink(linkTriangles, linkA, linkB, linkNeighbours, outerTriangles[b], vertices[b], vertices[c], last);
+            addLink(linkTriangles, linkA, linkB, linkNeighbours, outerTriangles[c], vertices[c], vertices[a], last);
+        } else {
+            /**
+             * The remaining edges are convex and form the new convex hull.
+             * The first vertex ends the chain and is never clipped.
+             */
+            for (int i = 0; following[i] >= 0; i = following[i]) {
+                addLink(linkTriangles, linkA, linkB, linkNeighbours, outerTriangles[i], vertices[i],
+                        vertices[following[i]], null);
+            }
+        }
+
+        for (Triangle removed : star) {
+            removeTriangle(removed);
+        }
+        for (int i = 0; i < linkTriangles.size(); i++) {
+            linkTriangles.get(i).setNeighbour(linkA.get(i), linkB.get(i), linkNeighbours.get(i));
+        }
+        lastCreatedTriangle = null;
+        for (Triangle earTriangle : created) {
+            addTriangle(earTriangle);
+        }
+        if (lastCreatedTriangle == null && !triangleSoup.isEmpty()) {
+            lastCreatedTriangle = triangleSoup.iterator().next();
+        }
+
+        List<Point> constrained = constraints.remove(vertex);
+        if (constrained != null) {
+            for (Point other : constrained) {
+                removeConstraint(other, vertex);
+            }
+        }
+
+        return vertex;
+    }
+
+    /**
+     * Puts the ear at a vertex of the polygon into the heap again, or takes it
+     * out if the vertex is an end of an open polygon or the ear is not convex.
+     * The key of an ear is the negated power of the removed vertex with
+     * respect to the circumcircle of the ear.
+     */
+    private static void updateEar(EarHeap ears, Point[] vertices, int[] previous, int[] following, int ear,
+            Point vertex) {
+        ears.invalidate(ear);
+        if (previous[ear] < 0 || following[ear] < 0) {
+            return;
+        }
+
+        Point a = vertices[previous[ear]];
+        Point b = vertices[ear];
+        Point c = vertices[following[ear]];
+        double orientation = Predicates.orientation(a.x, a.y, b.x, b.y, c.x, c.y);
+        if (orientation <= 0.0d) {
+            return;
+        }
+        ears.add(ear, Predicates.inCircle(a.x, a.y, b.x, b.y, c.x, c.y, vertex.x, vertex.y) / orientation);
+    }
+
+    private static void reverse(List<Point> polygon, List<Triangle> outer, boolean closed) {
+        Collections.reverse(polygon);
+        Collections.reverse(outer);
+        if (closed) {
+            /**
+             * Edge i connects vertex i and i + 1, so after reversing a closed
+             * polygon the edges are shifted by one.
+             */
+            Collections.rotate(outer, -1);
+        }
+    }
+
+    private static void addLink(List<Triangle> linkTriangles, List<Point> linkA, List<Point> linkB,
+            List<Triangle> linkNeighbours, Triangle triangle, Point a, Point b, Triangle neighbour) {
+        if (triangle != null) {
+            linkTriangles.add(triangle);
+            linkA.add(a);
+            linkB.add(b);
+            linkNeighbours.add(neighbour);
+        }
+    }
+
+    /**
+     * Inserts a constrained edge into an existing triangulation. The
+     * triangles crossed by the edge are removed and the two polygons on
+     * either side of it are triangulated again, so the edge appears in the
+     * mesh without adding points and the rest of the triangulation stays
+     * untouched. If the edge passes through vertices, it is inserted as a
+     * chain of constrained edges between them. Constrained edges are never
+     * flipped by later insertions, and a point inserted on one splits it into
+     * two constrained edges.
+     * 
+     * @param triangleSoup
+     *            The triangles of the triangulation, changed in place
+     * @param edge
+     *            The edge, both its points must have the coordinates of
+     *            vertices of the triangulation
+     * @throws IllegalArgumentException
+     *             Thrown if an end point is not a vertex, the edge leaves the
+     *             triangulation or crosses another constrained edge
+     */
+    public void insertConstraint(TriangleSoup triangleSoup, Edge edge) {
+        attach(triangleSoup);
+        Point a = findVertex(edge.a);
+        Point b = findVertex(edge.b);
+
+        /**
+         * Walk along the whole edge first, so an edge that cannot be inserted
+         * is rejected before the triangulation changes.
+         */
+        for (Point vertex = a; vertex != b;) {
+            vertex = walkConstraint(vertex, b, new ArrayList<Triangle>(), new ArrayList<Point>(),
+                    new ArrayList<Point>());
+        }
+
+        while (a != b) {
+            a = insertConstraintFrom(a, b);
+        }
+    }
+
+    /**
+     * Returns true if the edge between the two vertices is constrained.
+     * 
+     * @param a
+     *            The first vertex of the edge
+     * @param b
+     *            The second vertex of the edge
+     * @return Returns true if the edge is constrained
+     */
+    public boolean isConstrained(Point a, Point b) {
+        List<Point> constrained = constraints.get(a);
+        return constrained != null && constrained.contains(b);
+    }
+
+    /**
+     * Forgets all constrained edges, so they can be flipped again.
+     */
+    public void clearConstraints() {
+        constraints.clear();
+    }
+
+    private void addConstraint(Point a, Point b) {
+        if (!isConstrained(a, b)) {
+            constraints.computeIfAbsent(a, vertex -> new ArrayList<Point>(2)).add(b);
+            constraints.computeIfAbsent(b, vertex -> new ArrayList<Point>(2)).add(a);
+        }
+    }
+
+    private void removeConstraint(Point a, Point b) {
+        List<Point> constrained = constraints.get(a);
+        if (constrained != null) {
+            constrained.remove(b);
+            if (constrained.isEmpty()) {
+                constraints.remove(a);
+            }
+        }
+    }
+
+    /**
+     * Returns the vertex of the current triangulation with the coordinates of
+     * the point.
+     */
+    private Point findVertex(Point point) {
+        Triangle triangle = locate(point);
+        if (triangle == null || !triangle.hasVertexAt(point)) {
+            throw new IllegalArgumentException("Constraint end point " + point + " is not a vertex.");
+        }
+        if (triangle.a.x == point.x && triangle.a.y == point.y) {
+            return triangle.a;
+        }
+        if (triangle.b.x == point.x && triangle.b.y == point.y) {
+            return triangle.b;
+        }
+        return triangle.c;
+    }
+
+    /**
+     * Inserts the part of the constrained edge from a to b up to the first
+     * vertex on it and returns that vertex. The vertices of the crossed
+     * triangles left and right of the edge form two polygons, each of which
+     * is triangulated on its own.
+     */
+    private Point insertConstraintFrom(Point a, Point b) {
+        List<Triangle> crossed = new ArrayList<Triangle>();
+        List<Point> leftChain = new ArrayList<Point>();
+        List<Point> rightChain = new ArrayList<Point>();
+        Point end = walkConstraint(a, b, crossed, leftChain, rightChain);
+        if (crossed.isEmpty()) {
+            addConstraint(a, end);
+            return end;
+        }
+
+        /**
+         * The edges of the crossed triangles that are not crossed bound the
+         * two polygons, their outer neighbours are linked to the new
+         * triangles.
+         */
+        List<Triangle> boundaryTriangles = new ArrayList<Triangle>();
+        List<Point> boundaryA = new ArrayList<Point>();
+        List<Point> boundaryB = new ArrayList<Point>();
+        List<Triangle> boundaryNeighbours = new ArrayList<Triangle>();
+        for (Triangle removed : crossed) {
+            Point[] vertices = { removed.a, removed.b, removed.c };
+            for (int k = 0; k < 3; k++) {
+                Point p = vertices[(k + 1) % 3];
+                Point q = vertices[(k + 2) % 3];
+                Triangle neighbour = removed.getNoneEdgeNeigbourTiangle(p, q);
+                if (!containsIdentical(crossed, neighbour)) {
+                    addLink(boundaryTriangles, boundaryA, boundaryB, boundaryNeighbours, removed, p, q, neighbour);
+                }
+            }
+        }
+
+        List<Triangle> created = new ArrayList<Triangle>();
+        triangulatePseudoPolygon(leftChain, a, end, created);
+        triangulatePseudoPolygon(rightChain, a, end, created);
+
+        for (int i = 0; i < created.size(); i++) {
+            Triangle first = created.get(i);
+            Point[] vertices = { first.a, first.b, first.c };
+            for (int k = 0; k < 3; k++) {
+                Point p = vertices[(k + 1) % 3];
+                Point q = vertices[(k + 2) % 3];
+                for (int j = i + 1; j < created.size(); j++) {
+                    Triangle second = created.get(j);
+                    if (second.hasVertex(p) && second.hasVertex(q)) {
+                        first.setNeighbour(p, q, second);
+                        second.setNeighbour(p, q, first);
+                    }
+                }
+                for (int j = 0; j < boundaryA.size(); j++) {
+                    if ((boundaryA.get(j) == p && boundaryB.get(j) == q)
+                            || (boundaryA.get(j) == q && boundaryB.get(j) == p)) {
+                        Triangle neighbour = boundaryNeighbours.get(j);
+                        first.setNeighbour(p, q, neighbour);
+                        if (neighbour != null) {
+                            neighbour.setNeighbour(p, q, first);
+                        }
+                    }
+                }
+            }
+        }
+
+        for (Triangle removed : crossed) {
+            removeTriangle(removed);
+        }
+        for (Triangle newTriangle : created) {
+            addTriangle(newTriangle);
+        }
+        addConstraint(a, end);
+        return end;
+    }
+
+    /**
+     * Walks along the constrained edge from a to b up to the first vertex on
+     * it without changing the triangulation and returns that vertex. Starting
+     * at the triangle around a the edge leaves through, the crossed triangles
+     * and their vertices left and right of the edge are collected. If the
+     * edge to the vertex already exists, nothing is collected.
+     */
+    private Point walkConstraint(Point a, Point b, List<Triangle> crossed, List<Point> leftChain,
+            List<Point> rightChain) {
+        Triangle triangle = locate(a);
+        Point left = null;
+        Point right = null;
+
+        for (Triangle around : trianglesAround(triangle, a)) {
+            Point u = around.getNoneEdgeVertex(a, around.b == a ? around.c : around.b);
+            Point w = around.getNoneEdgeVertex(a, u);
+            for (Point vertex : new Point[] { u, w }) {
+                if (vertex == b || (Predicates.orientation(a.x, a.y, b.x, b.y, vertex.x, vertex.y) == 0.0d
+                        && (vertex.x - a.x) * (b.x - a.x) + (vertex.y - a.y) * (b.y - a.y) > 0.0d)) {
+                    /**
+                     * The edge from a to this vertex already exists and lies
+                     * on the constrained edge.
+                     */
+                    return vertex;
+                }
+            }
+
+            double sideU = Predicates.orientation(a.x, a.y, b.x, b.y, u.x, u.y);
+            double sideW = Predicates.orientation(a.x, a.y, b.x, b.y, w.x, w.y);
+            double sideA = Predicates.orientation(u.x, u.y, w.x, w.y, a.x, a.y);
+            double sideB = Predicates.orientation(u.x, u.y, w.x, w.y, b.x, b.y);
+            if (sideU * sideW < 0.0d && sideA * sideB < 0.0d) {
+                triangle = around;
+                left = sideU > 0.0d ? u : w;
+                right = sideU > 0.0d ? w : u;
+                break;
+            }
+        }
+
+        if (left == null) {
+            throw new IllegalArgumentException("Constraint from " + a + " to " + b + " leaves the triangulation.");
+        }
+
+        crossed.add(triangle);
+        leftChain.add(left);
+        rightChain.add(right);
+
+        while (true) {
+            if (isConstrained(left, right)) {
+                throw new IllegalArgumentException("Constraint from " + a + " to " + b
+                        + " crosses another constraint.");
+            }
+            Triangle next = triangle.getNoneEdgeNeigbourTiangle(left, right);
+            if (next == null) {
+                throw new IllegalArgumentException("Constraint from " + a + " to " + b
+                        + " leaves the triangulation.");
+            }
+            crossed.add(next);
+
+            Point vertex = next.getNoneEdgeVertex(left, right);
+            double side = Predicates.orientation(a.x, a.y, b.x, b.y, vertex.x, vertex.y);
+            if (vertex == b || side == 0.0d) {
+                return vertex;
+            }
+            if (side > 0.0d) {
+                leftChain.add(vertex);
+                left = vertex;
+            } else {
+                rightChain.add(vertex);
+                right = vertex;
+            }
+            triangle = next;
+        }
+    }
+
+    /**
+     * Returns the triangles around the vertex, starting with the given one.
+     */
+    private static List<Triangle> trianglesAround(Triangle start, Point vertex) {
+        List<Triangle> around = new ArrayList<Triangle>();
+        around.add(start);
+
+        Point other = start.b == vertex ? start.c : start.b;
+        Point current = start.getNoneEdgeVertex(vertex, other);
+        Triangle triangle = start;
+        while (true) {
+            Triangle next = triangle.getNoneEdgeNeigbourTiangle(vertex, current);
+            if (next == start) {
+                return around;
+            }
+            if (next == null) {
+                break;
+            }
+            current = next.getNoneEdgeVertex(vertex, current);
+            around.add(next);
+            triangle = next;
+        }
+
+        /**
+         * The vertex lies on the boundary, so the triangles on the other side
+         * of the start triangle are collected as well.
+         */
+        current = other;
+        triangle = start;
+        while (true) {
+            Triangle next = triangle.getNoneEdgeNeigbourTiangle(vertex, current);
+            if (next == null) {
+                return around;
+            }
+            current = next.getNoneEdgeVertex(vertex, current);
+            around.add(next);
+            triangle = next;
+        }
+    }
+
+    private static boolean containsIdentical(List<Triangle> triangles, Triangle triangle) {
+        for (Triangle element : triangles) {
+            if (element == triangle) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Triangulates the polygon formed by the base edge from a to b and the
+     * chain of vertices on one side of it, see Anglada, An improved
+     * incremental algorithm for constructing restricted Delaunay
+     * triangulations. The chain vertex whose circumcircle with the base edge
+     * contains no other chain vertex forms a triangle with it, and the two
+     * parts of the chain on either side of that vertex are triangulated the
+     * same way.
+     */
+    private static void triangulatePseudoPolygon(List<Point> chain, Point a, Point b, List<Triangle> created) {
+        if (chain.isEmpty()) {
+            return;
+        }
+
+        int apex = 0;
+        for (int i = 1; i < chain.size(); i++) {
+            Point c = chain.get(apex);
+            Point d = chain.get(i);
+            if (Predicates.isInCircumcircle(a.x, a.y, b.x, b.y, c.x, c.y, d.x, d.y)) {
+                apex = i;
+            }
+        }
+
+        Point c = chain.get(apex);
+        triangulatePseudoPolygon(chain.subList(0, apex), a, c, created);
+        triangulatePseudoPolygon(chain.subList(apex + 1, chain.size()), c, b, created);
+        created.add(new Triangle(a, b, c));
+    }
+
+    /**
+     * Splits the edge the point lies on together with the one or two
+     * triangles sharing it.
+     * 
+     * @param triangle
+     *            A triangle containing the edge
+     * @param edge
+     *            The edge
+     * @param point
+     *            The new vertex
+     */
+    private void splitEdge(Triangle triangle, Edge edge, Point point) {
+        if (isConstrained(edge.a, edge.b)) {
+            removeConstraint(edge.a, edge.b);
+            removeConstraint(edge.b, edge.a);
+            addConstraint(edge.a, point);
+            addConstraint(point, edge.b);
+        }
+
+        /**
+         * The vertex is not inside the triangle but lies on one of its
+         * edges. The orientation tests are exact, so the edge is known
+         * without searching the triangle soup.
+         */
+        Triangle first = triangle;
+        Triangle second = first.getNoneEdgeNeigbourTiangle(edge);
+
+        if (second == null) {
+            /**
+             * The edge lies on the convex hull, so only the triangle on its
+             * inner side is split into two.
+             */
+            Point noneEdgeVertex = first.getNoneEdgeVertex(edge);
+            removeTriangle(first);
+
+            Triangle triangle1 = new Triangle(edge.a, noneEdgeVertex, point);
+            Triangle triangle2 = new Triangle(edge.b, noneEdgeVertex, point);
+            triangle1.neighbourOppositeA = triangle2;
+            triangle2.neighbourOppositeA = triangle1;
+
+            triangle1.neighbourOppositeC = first.getNoneEdgeNeigbourTiangle(edge.a, noneEdgeVertex);
+            if (triangle1.neighbourOppositeC != null) {
+                triangle1.neighbourOppositeC.setNeighbour(edge.a, noneEdgeVertex, triangle1);
+            }
+            triangle2.neighbourOppositeC = first.getNoneEdgeNeigbourTiangle(edge.b, noneEdgeVertex);
+            if (triangle2.neighbourOppositeC != null) {
+                triangle2.neighbourOppositeC.setNeighbour(edge.b, noneEdgeVertex, triangle2);
+            }
+
+            addTriangle(triangle1);
+            addTriangle(triangle2);
+
+            pushEdge(triangle1, edge.a, noneEdgeVertex);
+            pushEdge(triangle2, edge.b, noneEdgeVertex);
+            legalizeEdges(point);
+            return;
+        }
+
+        /**
+         * The two triangles sharing the edge are removed and four new
+         * triangles are added.
+         */
+        Point firstNoneEdgeVertex = first.getNoneEdgeVertex(edge);
+        Point secondNoneEdgeVertex = second.getNoneEdgeVertex(edge);
+
+        removeTriangle(first);
+        removeTriangle(second);
+
+        Triangle triangle1 = new Triangle(edge.a, firstNoneEdgeVertex, point);
+        Triangle triangle2 = new Triangle(edge.b, firstNoneEdgeVertex, point);
+        Triangle triangle3 = new Triangle(edge.a, secondNoneEdgeVertex, point);
+        Triangle triangle4 = new Triangle(edge.b, secondNoneEdgeVertex, point);
+        triangle1.neighbourOppositeA = triangle2;
+        triangle1.neighbourOppositeB = triangle3;
+        triangle2.neighbourOppositeA = triangle1;
+        triangle2.neighbourOppositeB = triangle4;
+        triangle3.neighbourOppositeA = triangle4;
+        triangle3.neighbourOppositeB = triangle1;
+        triangle4.neighbourOppositeA = triangle3;
+        triangle4.neighbourOppositeB = triangle2;
+        
+        triangle1.neighbourOppositeC = first.getNoneEdgeNeigbourTiangle(edge.a, firstNoneEdgeVertex);
+        if (triangle1.neighbourOppositeC != null) {
+        	triangle1.neighbourOppositeC.setNeighbour(edge.a, firstNoneEdgeVertex, triangle1);
+        }
+        triangle2.neighbourOppositeC = first.getNoneEdgeNeigbourTiangle(edge.b, firstNoneEdgeVertex);
+        if (triangle2.neighbourOppositeC != null) {
+        	triangle2.neighbourOppositeC.setNeighbour(edge.b, firstNoneEdgeVertex, triangle2);
+        }
+        triangle3.neighbourOppositeC = second.getNoneEdgeNeigbourTiangle(edge.a, secondNoneEdgeVertex); 
+        if (triangle3.neighbourOppositeC != null) {
+        	triangle3.neighbourOppositeC.setNeighbour(edge.a, secondNoneEdgeVertex, triangle3);
+        }
+        triangle4.neighbourOppositeC = second.getNoneEdgeNeigbourTiangle(edge.b, secondNoneEdgeVertex);             
+        if (triangle4.neighbourOppositeC != null) {
+        	triangle4.neighbourOppositeC.setNeighbour(edge.b, secondNoneEdgeVertex, triangle4);
+        }
+
+        addTriangle(triangle1);
+        addTriangle(triangle2);
+        addTriangle(triangle3);
+        addTriangle(triangle4);
+
+        pushEdge(triangle1, edge.a, firstNoneEdgeVertex);
+        pushEdge(triangle2, edge.b, firstNoneEdgeVertex);
+        pushEdge(triangle3, edge.a, secondNoneEdgeVertex);
+        pushEdge(triangle4, edge.b, secondNoneEdgeVertex);
+        legalizeEdges(point);
+    }
+
+    /**
+     * Splits the triangle the point lies in into three triangles.
+     * 
+     * @param triangle
+     *            The triangle containing the point
+     * @param point
+     *            The new vertex
+     */
+    private void splitTriangle(Triangle triangle, Point point) {
+        /**
+         * The vertex is inside a triangle.
+         */
+        Point a = triangle.a;
+        Point b = triangle.b;
+        Point c = triangle.c;
+
+        removeTriangle(triangle);
+
+        Triangle first = new Triangle(a, b, point);
+        Triangle second = new Triangle(b, c, point);
+        Triangle third = new Triangle(c, a, point);
+        
+        first.neighbourOppositeA = second;
+        first.neighbourOppositeB = third;
+        first.neighbourOppositeC = triangle.neighbourOppositeC;
+        second.neighbourOppositeA = third;
+        second.neighbourOppositeB = first;
+        second.neighbourOppositeC = triangle.neighbourOppositeA;
+        third.neighbourOppositeA = first;
+        third.neighbourOppositeB = second;
+        third.neighbourOppositeC = triangle.neighbourOppositeB;
+        
+        
+        if (triangle.neighbourOppositeA != null) 
+        	triangle.neighbourOppositeA.setNeighbour(c, b, second);
+        if (triangle.neighbourOppositeB != null) 
+        	triangle.neighbourOppositeB.setNeighbour(a, c, third);
+        if (triangle.neighbourOppositeC != null) 
+        	triangle.neighbourOppositeC.setNeighbour(a, b, first);
+
+        addTriangle(first);
+        addTriangle(second);
+        addTriangle(third);
+
+        pushEdge(first, a, b);
+        pushEdge(second, b, c);
+        pushEdge(third, c, a);
+        legalizeEdges(point);
+    }
+
+    /**
+     * Connects a point outside of the triangulation to all convex hull edges
+     * visible from it. The visible edges form a chain on the hull, which is
+     * followed in both directions from the first visible edge by turning
+     * around the hull vertices.
+     * 
+     * @param exitTriangle
+     *            A triangle with a hull edge visible from the point, may be
+     *            null
+     * @param point
+     *            The new vertex
+     * @return Returns true if the point was inserted
+     */
+    private boolean insertOutside(Triangle exitTriangle, Point point) {
+        Triangle start = exitTriangle;
+        Edge edge = start == null ? null : findVisibleHullEdge(start, point);
+
+        if (edge == null) {
+            for (Triangle triangle : triangleSoup) {
+                edge = findVisibleHullEdge(triangle, point);
+                if (edge != null) {
+                    start = triangle;
+                    break;
+                }
+            }
+            if (edge == null) {
+                return false;
+            }
+        }
+
+        List<Point> chain = new ArrayList<Point>();
+        List<Triangle> chainTriangles = new ArrayList<Triangle>();
+        chain.add(edge.a);
+        chain.add(edge.b);
+        chainTriangles.add(start);
+
+        Triangle triangle = start;
+        Point previous = edge.a;
+        Point current = edge.b;
+        while (true) {
+            triangle = nextHullTriangle(triangle, previous, current);
+            Point next = hullVertex;
+            if (next == edge.a || !isVisible(triangle, current, next, point)) {
+                break;
+            }
+            chain.add(next);
+            chainTriangles.add(triangle);
+            previous = current;
+            current = next;
+        }
+
+        triangle = start;
+        previous = edge.b;
+        current = edge.a;
+        while (true) {
+            triangle = nextHullTriangle(triangle, previous, current);
+            Point next = hullVertex;
+            if (next == chain.get(chain.size() - 1) || !isVisible(triangle, current, next, point)) {
+                break;
+            }
+            chain.add(0, next);
+            chainTriangles.add(0, triangle);
+            previous = current;
+            current = next;
+        }
+
+        Triangle[] created = new Triangle[chainTriangles.size()];
+        for (int i = 0; i < created.length; i++) {
+            Point a = chain.get(i);
+            Point b = chain.get(i + 1);
+            created[i] = new Triangle(a, b, point);
+            created[i].neighbourOppositeC = chainTriangles.get(i);
+            chainTriangles.get(i).setNeighbour(a, b, created[i]);
+            if (i > 0) {
+                created[i].neighbourOppositeB = created[i - 1];
+                created[i - 1].neighbourOppositeA = created[i];
+            }
+        }
+
+        for (int i = 0; i < created.length; i++) {
+            addTriangle(created[i]);
+            pushEdge(created[i], chain.get(i), chain.get(i + 1));
+        }
+        legalizeEdges(point);
+        return true;
+    }
+
+    /**
+     * Returns the edge of the triangle without neighbour that separates the
+     * triangle from the point, or null if there is no such edge.
+     */
+    private Edge findVisibleHullEdge(Triangle triangle, Point point) {
+        if (triangle.neighbourOppositeA == null && isVisible(triangle, triangle.b, triangle.c, point)) {
+            return new Edge(triangle.b, triangle.c);
+        }
+        if (triangle.neighbourOppositeB == null && isVisible(triangle, triangle.c, triangle.a, point)) {
+            return new Edge(triangle.c, triangle.a);
+        }
+        if (triangle.neighbourOppositeC == null && isVisible(triangle, triangle.a, triangle.b, point)) {
+            return new Edge(triangle.a, triangle.b);
+        }
+        return null;
+    }
+
+    /**
+     * Tests if the line through the edge strictly separates the third vertex
+     * of the triangle from the point.
+     */
+    private boolean isVisible(Triangle triangle, Point edgeA, Point edgeB, Point point) {
+        Point opposite = triangle.getNoneEdgeVertex(edgeA, edgeB);
+        double side = Predicates.orientation(edgeA.x, edgeA.y, edgeB.x, edgeB.y, point.x, point.y);
+        double oppositeSide = Predicates.orientation(edgeA.x, edgeA.y, edgeB.x, edgeB.y, opposite.x, opposite.y);
+        return (side > 0.0d && oppositeSide < 0.0d) || (side < 0.0d && oppositeSide > 0.0d);
+    }
+
+    /**
+     * Turns around the hull vertex current, starting at the hull edge from
+     * previous to current, until the next hull edge is reached. Returns the
+     * triangle owning that edge and stores its other vertex in hullVertex.
+     */
+    private Triangle nextHullTriangle(Triangle triangle, Point previous, Point current) {
+        while (true) {
+            Point other = triangle.getNoneEdgeVertex(current, previous);
+            Triangle next = triangle.getNoneEdgeNeigbourTiangle(current, other);
+            if (next == null) {
+                hullVertex = other;
+                return triangle;
+            }
+            previous = other;
+            triangle = next;
+        }
+    }
+
+    /**
+     * Pushes an edge onto the stack of edges waiting to be legalized.
+     * 
+     * @param triangle
+     *            The triangle containing the new vertex and the edge
+     * @param edgeA
+     *            The first vertex of the edge
+     * @param edgeB
+     *            The second vertex of the edge
+     */
+    private void pushEdge(Triangle triangle, Point edgeA, Point edgeB) {
+        if (edgeStackSize == edgeStackTriangles.length) {
+            int capacity = 2 * edgeStackTriangles.length;
+            edgeStackTriangles = Arrays.copyOf(edgeStackTriangles, capacity);
+            edgeStackA = Arrays.copyOf(edgeStackA, capacity);
+            edgeStackB = Arrays.copyOf(edgeStackB, capacity);
+        }
+        edgeStackTriangles[edgeStackSize] = triangle;
+        edgeStackA[edgeStackSize] = edgeA;
+        edgeStackB[edgeStackSize] = edgeB;
+        edgeStackSize++;
+    }
+
+    /**
+     * This method legalizes the edges on the edge stack by flipping all
+     * illegal edges. Every flip pushes the two edges opposite the new vertex
+     * in the flipped triangles, so the loop runs until no illegal edge is
+     * left. The stack is reused between insertions, so apart from the new
+     * triangles a flip allocates nothing and the depth of the flip cascade is
+     * not limited by the call stack.
+     * 
+     * @param newVertex
+     *            The new vertex
+     */
+    private void legalizeEdges(Point newVertex) {
+        int flips = 0;
+
+        while (edgeStackSize > 0) {
+            edgeStackSize--;
+            Triangle triangle = edgeStackTriangles[edgeStackSize];
+            Point edgeA = edgeStackA[edgeStackSize];
+            Point edgeB = edgeStackB[edgeStackSize];
+            edgeStackTriangles[edgeStackSize] = null;
+            edgeStackA[edgeStackSize] = null;
+            edgeStackB[edgeStackSize] = null;
+
+            if (!triangleSoup.contains(triangle)) {
+                continue;
+            }
+
+            Triangle neighbourTriangle = triangle.getNoneEdgeNeigbourTiangle(edgeA, edgeB);
+
+            /**
+             * The edge is illegal if the triangle has a neighbour across it
+             * whose circumcircle contains the new vertex, unless the edge is
+             * constrained.
+             */
+            if (neighbourTriangle == null || !neighbourTriangle.isPointInCircumcircle(newVertex)
+                    || (!constraints.isEmpty() && isConstrained(edgeA, edgeB))) {
+                continue;
+            }
+
+            removeTriangle(triangle);
+            removeTriangle(neighbourTriangle);
+
+            Point noneEdgeVertex = neighbourTriangle.getNoneEdgeVertex(edgeA, edgeB);
+
+            Triangle firstTriangle = new Triangle(noneEdgeVertex, edgeA, newVertex);
+            Triangle secondTriangle = new Triangle(noneEdgeVertex, edgeB, newVertex);
+            firstTriangle.neighbourOppositeA = triangle.getNoneEdgeNeigbourTiangle(edgeA, newVertex);
+            firstTriangle.neighbourOppositeC = neighbourTriangle.getNoneEdgeNeigbourTiangle(edgeA, noneEdgeVertex);
+            firstTriangle.neighbourOppositeB = secondTriangle;
+            secondTriangle.neighbourOppositeA = triangle.getNoneEdgeNeigbourTiangle(edgeB, newVertex);
+            secondTriangle.neighbourOppositeC = neighbourTriangle.getNoneEdgeNeigbourTiangle(edgeB, noneEdgeVertex);
+            secondTriangle.neighbourOppositeB = firstTriangle;
+
+            if (firstTriangle.neighbourOppositeA != null) {
+                firstTriangle.neighbourOppositeA.setNeighbour(edgeA, newVertex, firstTriangle);
+            }
+            if (secondTriangle.neighbourOppositeA != null) {
+                secondTriangle.neighbourOppositeA.setNeighbour(edgeB, newVertex, secondTriangle);
+            }
+            if (firstTriangle.neighbourOppositeC != null) {
+                firstTriangle.neighbourOppositeC.setNeighbour(edgeA, noneEdgeVertex, firstTriangle);
+            }
+            if (secondTriangle.neighbourOppositeC != null) {
+                secondTriangle.neighbourOppositeC.setNeighbour(edgeB, noneEdgeVertex, secondTriangle);
+            }
+
+            addTriangle(firstTriangle);
+            addTriangle(secondTriangle);
+            flips++;
+
+            pushEdge(secondTriangle, noneEdgeVertex, edgeB);
+            pushEdge(firstTriangle, noneEdgeVertex, edgeA);
+        }
+
+        lastInsertionFlipCount = flips;
+        flipCount += flips;
+        if (statistics != null) {
+            statistics.flips += flips;
+        }
+    }
+
+    /**
+     * Adds the triangle to the triangle soup and remembers it as the start of
+     * the next point location walk.
+     * 
+     * @param triangle
+     *            The triangle to be added
+     */
+    private void addTriangle(Triangle triangle) {
+        triangleSoup.add(triangle);
+        lastCreatedTriangle = triangle;
+        if (statistics != null) {
+            statistics.trianglesCreated++;
+        }
+    }
+
+    private void removeTriangle(Triangle triangle) {
+        triangleSoup.remove(triangle);
+        if (statistics != null) {
+            statistics.trianglesRemoved++;
+        }
+    }
+
+    /**
+     * Locates the point starting at the last created triangle and counts the
+     * steps of the walk. The boundary of a filtered triangulation may be
+     * concave, so the walk may leave it although the point lies in a triangle
+     * beyond a concavity, in which case the triangles are scanned.
+     */
+    private Triangle locate(Point point) {
+        Triangle triangle = pointLocator.locate(triangleSoup, lastCreatedTriangle, point);
+        if (statistics != null) {
+            statistics.locationSteps += pointLocator.getLastStepCount();
+            if (pointLocator.isLastFallback()) {
+                statistics.locationFallbacks++;
+            }
+        }
+        if (triangle == null && !triangleSoup.isConvex()) {
+            triangle = triangleSoup.findContainingTriangleNew(point);
+        }
+        return triangle;
+    }
+
+    /**
+     * Returns the point locator used to find the triangle containing a newly
+     * inserted point. Its mode can be switched to a linear scan for debugging.
+     * 
+     * @return Returns the point locator.
+     */
+    public PointLocator getPointLocator() {
+        return pointLocator;
+    }
+
+    /**
+     * Sets the statistics the triangulations and incremental edits of this
+     * engine are counted in. Point location steps and fallbacks, flips and
+     * created and removed triangles are counted, insertion and cleanup are
+     * timed.
+     * 
+     * @param statistics
+     *            The statistics, null to stop counting
+     */
+    @Override
+    public void setStatistics(TriangulationStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * Returns the number of edge flips performed while inserting the most
+     * recently inserted point.
+     * 
+     * @return Returns the number of flips of the last insertion.
+     */
+    public int getLastInsertionFlipCount() {
+        return lastInsertionFlipCount;
+    }
+
+    /**
+     * Returns the number of edge flips performed by the last triangulation
+     * and the insertions since.
+     * 
+     * @return Returns the number of flips of the last triangulation.
+     */
+    public long getFlipCount() {
+        return flipCount;
+    }
+
+    /**
+     * A binary min heap of the ears of a polygon. An ear whose vertex changed
+     * is not searched in the heap, its old entry is just marked stale and
+     * skipped when it comes up.
+     */
+    private static final class EarHeap {
+
+        private final int[] stamps;
+        private int[] ears;
+        private int[] entryStamps;
+        private double[] keys;
+        private int size;
+
+        EarHeap(int vertexCount) {
+            stamps = new int[vertexCount];
+            ears = new int[2 * vertexCount];
+            entryStamps = new int[2 * vertexCount];
+            keys = new double[2 * vertexCount];
+        }
+
+        void invalidate(int ear) {
+            stamps[ear]++;
+        }
+
+        void add(int ear, double key) {
+            if (size == ears.length) {
+                ears = Arrays.copyOf(ears, 2 * size);
+                entryStamps = Arrays.copyOf(entryStamps, 2 * size);
+                keys = Arrays.copyOf(keys, 2 * size);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >> 1;
+                if (keys[parent] <= key) {
+                    break;
+                }
+                set(i, ears[parent], entryStamps[parent], keys[parent]);
+                i = parent;
+            }
+            set(i, ear, stamps[ear], key);
+        }
+
+        /**
+         * Returns the ear with the smallest key and removes it, or -1 if
+         * there is no valid ear left.
+         */
+        int poll() {
+            while (size > 0) {
+                int ear = ears[0];
+                boolean valid = entryStamps[0] == stamps[ear];
+                size--;
+                int lastEar = ears[size];
+                int lastStamp = entryStamps[size];
+                double lastKey = keys[size];
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && keys[child + 1] < keys[child]) {
+                        child++;
+                    }
+                    if (lastKey <= keys[child]) {
+                        break;
+                    }
+                    set(i, ears[child], entryStamps[child], keys[child]);
+                    i = child;
+                }
+                set(i, lastEar, lastStamp, lastKey);
+                if (valid) {
+                    stamps[ear]++;
+                    return ear;
+                }
+            }
+            return -1;
+        }
+
+        private void set(int i, int ear, int stamp, double key) {
+            ears[i] = ear;
+            entryStamps[i] = stamp;
+            keys[i] = key;
+        }
+
+    }
+
+}
@@ -0,0 +1,352 @@
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indexed triangle mesh implementation. Vertex coordinates are stored in
+ * primitive arrays, triangles are stored as triples of vertex indices and the
+ * neighbour relation is stored as triples of triangle indices. The neighbour
+ * at position k of a triangle lies opposite to its k-th vertex, just like
+ * {@link Triangle#neighbourOppositeA}, {@link Triangle#neighbourOppositeB} and
+ * {@link Triangle#neighbourOppositeC}. A missing neighbour is stored as -1.
+ */
+public class IndexedMesh {
+
+    public static final int NO_NEIGHBOUR = -1;
+
+    final int vertexCount;
+    final double[] x;
+    final double[] y;
+    final double[] z;
+
+    final int triangleCount;
+    final int[] triangles;
+    final int[] neighbours;
+
+    /**
+     * Constructor of the indexed mesh class used to create a new mesh from
+     * primitive arrays. The arrays are used directly, not copied, and may be
+     * longer than required by the vertex and triangle counts.
+     *
+     * @param vertexCount
+     *            The number of vertices
+     * @param x
+     *            The x coordinates of the vertices
+     * @param y
+     *            The y coordinates of the vertices
+     * @param z
+     *            The z coordinates of the vertices
+     * @param triangleCount
+     *            The number of triangles
+     * @param triangles
+     *            The vertex indices of the triangles, three per triangle
+     * @param neighbours
+     *            The triangle indices of the neighbours, three per triangle
+     */
+    public IndexedMesh(int vertexCount, double[] x, double[] y, double[] z, int triangleCount, int[] triangles,
+            int[] neighbours) {
+        if (x.length < vertexCount || y.length < vertexCount || z.length < vertexCount) {
+            throw new IllegalArgumentException("Coordinate arrays are shorter than the vertex count.");
+        }
+        if (triangles.length < 3 * triangleCount || neighbours.length < 3 * triangleCount) {
+            throw new IllegalArgumentException("Index arrays are shorter than the triangle count.");
+        }
+        this.vertexCount = vertexCount;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.triangleCount = triangleCount;
+        this.triangles = triangles;
+        this.neighbours = neighbours;
+    }
+
+    /**
+     * Creates an indexed mesh from a point set and a triangle soup whose
+     * triangles are built from the points of the point set. The index of a
+     * vertex is its position in the point set. The triangle soup is compacted,
+     * so the index of a triangle is its position in the soup. Neighbour links
+     * to triangles that are no longer part of the soup are dropped.
+     *
+     * @param pointSet
+     *            The point set
+     * @param triangleSoup
+     *            The triangle soup
+     * @return Returns the indexed mesh
+     */
+    public static IndexedMesh of(List<Point> pointSet, TriangleSoup triangleSoup) {
+        int vertexCount = pointSet.size();
+        double[] x = new double[vertexCount];
+        double[] y = new double[vertexCount];
+        double[] z = new double[vertexCount];
+        Map<Point, Integer> vertexIndices = new IdentityHashMap<Point, Integer>(vertexCount);
+
+        for (int i = 0; i < vertexCount; i++) {
+            Point point = pointSet.get(i);
+            x[i] = point.x;
+            y[i] = point.y;
+            z[i] = point.z;
+            vertexIndices.put(point, i);
+        }
+
+        triangleSoup.compact();
+
+        int triangleCount = triangleSoup.size();
+        int[] triangles = new int[3 * triangleCount];
+        int[] neighbours = new int[3 * triangleCount];
+
+        for (Triangle triangle : triangleSoup) {
+            int offset = 3 * triangle.soupIndex;
+            triangles[offset] = vertexIndex(vertexIndices, triangle.a);
+            triangles[offset + 1] = vertexIndex(vertexIndices, triangle.b);
+            triangles[offset + 2] = vertexIndex(vertexIndices, triangle.c);
+            neighbours[offset] = triangleIndex(triangleSoup, triangle.neighbourOppositeA);
+            neighbours[offset + 1] = triangleIndex(triangleSoup, triangle.neighbourOppositeB);
+            neighbours[offset + 2] = triangleIndex(triangleSoup, triangle.neighbourOppositeC);
+        }
+
+        return new IndexedMesh(vertexCount, x, y, z, triangleCount, triangles, neighbours);
+    }
+
+    private static int vertexIndex(Map<Point, Integer> vertexIndices, Point vertex) {
+        Integer index = vertexIndices.get(vertex);
+        if (index == null) {
+            throw new IllegalArgumentException("Triangle vertex " + vertex + " is not part of the point set.");
+        }
+        return index;
+    }
+
+    private static int triangleIndex(TriangleSoup triangleSoup, Triangle triangle) {
+        return triangleSoup.contains(triangle) ? triangle.soupIndex : NO_NEIGHBOUR;
+    }
+
+    /**
+     * Returns the number of vertices of this mesh.
+     *
+     * @return Returns the number of vertices
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Returns the number of triangles of this mesh.
+     *
+     * @return Returns the number of triangles
+     */
+    public int getTriangleCount() {
+        return triangleCount;
+    }
+
+    /**
+     * Returns the x coordinate of the specified vertex.
+     *
+     * @param vertex
+     *            The vertex index
+     * @return Returns the x coordinate
+     */
+    public double getX(int vertex) {
+        return x[vertex];
+    }
+
+    /**
+     * Returns the y coordinate of the specified vertex.
+     *
+     * @param vertex
+     *            The vertex index
+     * @return Returns the y coordinate
+     */
+    public double getY(int vertex) {
+        return y[vertex];
+    }
+
+    /**
+     * Returns the z coordinate of the specified vertex.
+     *
+     * @param vertex
+     *            The vertex index
+     * @return Returns the z coordinate
+     */
+    public double getZ(int vertex) {
+        return z[vertex];
+    }
+
+    /**
+     * Returns the index of the k-th vertex of the specified triangle.
+     *
+     * @param triangle
+     *            The triangle index
+     * @param k
+     *            The vertex position within the triangle, 0, 1 or 2
+     * @return Returns the vertex index
+     */
+    public int getVertex(int triangle, int k) {
+        return triangles[3 * triangle + k];
+    }
+
+    /**
+     * Returns the index of the triangle opposite to the k-th vertex of the
+     * specified triangle or {@link #NO_NEIGHBOUR}.
+     *
+     * @param triangle
+     *            The triangle index
+     * @param k
+     *            The vertex position within the triangle, 0, 1 or 2
+     * @return Returns the neighbour triangle index or {@link #NO_NEIGHBOUR}
+     */
+    public int getNeighbour(int triangle, int k) {
+        return neighbours[3 * triangle + k];
+    }
+
+    /**
+     * Returns true if the triangles of this mesh cover a convex region, like
+     * the triangulations of the engines do. Meshes whose boundary turns
+     * inwards anywhere, has holes or touches itself in a vertex, for example
+     * filtered ones, are not convex. The boundary is followed once, so the
+     * test takes linear time.
+     *
+     * @return Returns true if the mesh covers a convex region
+     */
+    public boolean isConvex() {
+        /**
+         * Every boundary edge is directed so that its triangle lies on its
+         * left, which makes the boundary of a convex mesh a single
+         * counterclockwise loop without right turns.
+         */
+        int[] next = new int[vertexCount];
+        Arrays.fill(next, NO_NEIGHBOUR);
+        int boundaryCount = 0;
+        int start = NO_NEIGHBOUR;
+        for (int t = 0; t < triangleCount; t++) {
+            for (int k = 0; k < 3; k++) {
+                if (neighbours[3 * t + k] != NO_NEIGHBOUR) {
+                    continue;
+                }
+                int u = triangles[3 * t + (k + 1) % 3];
+                int v = triangles[3 * t + (k + 2) % 3];
+                int w = triangles[3 * t + k];
+                if (Predicates.orientation(x[u], y[u], x[v], y[v], x[w], y[w]) < 0.0d) {
+                    int swap = u;
+                    u = v;
+                    v = swap;
+                }
+                if (next[u] != NO_NEIGHBOUR) {
+                    return false;
+                }
+                next[u] = v;
+                boundaryCount++;
+                start = u;
+            }
+        }
+
+        if (start == NO_NEIGHBOUR) {
+            return true;
+        }
+
+        int u = start;
+        int count = 0;
+        do {
+            int v = next[u];
+            int w = next[v];
+            if (w == NO_NEIGHBOUR || Predicates.orientation(x[u], y[u], x[v], y[v], x[w], y[w]) < 0.0d) {
+                return false;
+            }
+            u = v;
+            count++;
+        } while (u != start && count < boundaryCount);
+
+        return u == start && count == boundaryCount;
+    }
+
+    /**
+     * Returns a new point holding the coordinates of the specified vertex.
+     *
+     * @param vertex
+     *            The vertex index
+     * @return Returns a point view of the vertex
+     */
+    public Point getPoint(int vertex) {
+        return new Point(x[vertex], y[vertex], z[vertex]);
+    }
+
+    /**
+     * Returns a new triangle built from new points holding the coordinates
+     * of the vertices of the specified triangle. The neighbours of the
+     * returned triangle are not set, use {@link #toTriangleSoup()} to obtain
+     * a connected object representation.
+     *
+     * @param triangle
+     *            The triangle index
+     * @return Returns a triangle view of the triangle
+     */
+    public Triangle getTriangle(int triangle) {
+        int offset = 3 * triangle;
+        return new Triangle(getPoint(triangles[offset]), getPoint(triangles[offset + 1]),
+                getPoint(triangles[offset + 2]));
+    }
+
+    /**
+     * Builds the object representation of this mesh. Every vertex is turned
+     * into exactly one point, so triangles sharing a vertex share the point
+     * instance, and the neighbour links of the triangles are set. A mesh that
+     * is not convex, see {@link #isConvex()}, gives a triangle soup that is
+     * not convex either.
+     *
+     * @return Returns a triangle soup holding the triangles of this mesh
+     */
+    public TriangleSoup toTriangleSoup() {
+        return toTriangleSoup(new Point[vertexCount]);
+    }
+
+    /**
+     * Builds the object representation of this mesh using the points of the
+     * given point set as vertices. The point at index i of the point set must
+     * describe the vertex i of this mesh.
+     *
+     * @param pointSet
+     *            The points describing the vertices of this mesh
+     * @return Returns a triangle soup holding the triangles of this mesh
+     */
+    public TriangleSoup toTriangleSoup(List<Point> pointSet) {
+        if (pointSet.size() < vertexCount) {
+            throw new IllegalArgumentException("Point set is smaller than the vertex count.");
+        }
+        return toTriangleSoup(pointSet.toArray(new Point[pointSet.size()]));
+    }
+
+    private TriangleSoup toTriangleSoup(Point[] points) {
+        Triangle[] objects = new Triangle[triangleCount];
+        TriangleSoup triangleSoup = new TriangleSoup();
+
+        for (int t = 0; t < triangleCount; t++) {
+            int offset = 3 * t;
+            objects[t] = new Triangle(point(points, triangles[offset]), point(points, triangles[offset + 1]),
+                    point(points, triangles[offset + 2]));
+            triangleSoup.add(objects[t]);
+        }
+
+        for (int t = 0; t < triangleCount; t++) {
+            int offset = 3 * t;
+            objects[t].neighbourOppositeA = triangle(objects, neighbours[offset]);
+            objects[t].neighbourOppositeB = triangle(objects, neighbours[offset + 1]);
+            objects[t].neighbourOppositeC = triangle(objects, neighbours[offset + 2]);
+        }
+
+        if (!isConvex()) {
+            triangleSoup.markConcave();
+        }
+        return triangleSoup;
+    }
+
+    private Point point(Point[] points, int vertex) {
+        if (points[vertex] == null) {
+            points[vertex] = getPoint(vertex);
+        }
+        return points[vertex];
+    }
+
+    private static Triangle triangle(Triangle[] objects, int triangle) {
+        return triangle == NO_NEIGHBOUR ? null : objects[triangle];
+    }
+
+}
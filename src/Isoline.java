@@ -0,0 +1,62 @@
+import java.util.List;
+
+/**
+ * A single isoline of a triangulation, a polyline connecting the points where
+ * the surface crosses the level. A closed isoline ends with its first point,
+ * an open one starts and ends on the boundary of the triangulation.
+ */
+public class Isoline {
+
+    private final double level;
+    private final List<Point> points;
+    private final boolean closed;
+
+    /**
+     * Constructor of the isoline class used to create a new isoline.
+     *
+     * @param level
+     *            The level of the isoline
+     * @param points
+     *            The points of the polyline, their z coordinate is the level
+     * @param closed
+     *            Whether the polyline is closed
+     */
+    public Isoline(double level, List<Point> points, boolean closed) {
+        this.level = level;
+        this.points = points;
+        this.closed = closed;
+    }
+
+    /**
+     * Returns the level of this isoline.
+     *
+     * @return Returns the level
+     */
+    public double getLevel() {
+        return level;
+    }
+
+    /**
+     * Returns the points of the polyline.
+     *
+     * @return Returns the points
+     */
+    public List<Point> getPoints() {
+        return points;
+    }
+
+    /**
+     * Returns true if the polyline is closed.
+     *
+     * @return Returns true if the polyline is closed
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public String toString() {
+        return "Isoline[" + level + ", " + points.size() + " points" + (closed ? ", closed" : "") + "]";
+    }
+
+}
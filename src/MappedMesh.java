@@ -0,0 +1,182 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * Read-only view of an indexed mesh stored in a {@link MeshFile}. The
+ * coordinates and indices are read straight from the memory mapped file, so
+ * opening a mesh takes constant time no matter its size and only the pages
+ * that are accessed are ever loaded. Vertices and triangles are numbered
+ * like in the {@link IndexedMesh} that was written. The checksum of the data
+ * is only verified on request, see {@link #verify()}.
+ */
+public final class MappedMesh {
+
+    private final String name;
+    private final int vertexCount;
+    private final int triangleCount;
+    private final long checksum;
+    private final ByteBuffer[] sections;
+
+    private final DoubleBuffer x;
+    private final DoubleBuffer y;
+    private final DoubleBuffer z;
+    private final IntBuffer triangles;
+    private final IntBuffer neighbours;
+
+    private boolean verified;
+
+    /**
+     * Creates a view of the mapped sections of a mesh file, in the order x,
+     * y, z, triangles, neighbours.
+     */
+    MappedMesh(String name, int vertexCount, int triangleCount, long checksum, ByteBuffer[] sections) {
+        this.name = name;
+        this.vertexCount = vertexCount;
+        this.triangleCount = triangleCount;
+        this.checksum = checksum;
+        this.sections = sections;
+        this.x = sections[0].asDoubleBuffer();
+        this.y = sections[1].asDoubleBuffer();
+        this.z = sections[2].asDoubleBuffer();
+        this.triangles = sections[3].asIntBuffer();
+        this.neighbours = sections[4].asIntBuffer();
+    }
+
+    /**
+     * Returns the number of vertices of this mesh.
+     *
+     * @return Returns the number of vertices
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Returns the number of triangles of this mesh.
+     *
+     * @return Returns the number of triangles
+     */
+    public int getTriangleCount() {
+        return triangleCount;
+    }
+
+    /**
+     * Returns the x coordinate of the specified vertex.
+     *
+     * @param vertex
+     *            The vertex index
+     * @return Returns the x coordinate
+     */
+    public double getX(int vertex) {
+        return x.get(vertex);
+    }
+
+    /**
+     * Returns the y coordinate of the specified vertex.
+     *
+     * @param vertex
+     *            The vertex index
+     * @return Returns the y coordinate
+     */
+    public double getY(int vertex) {
+        return y.get(vertex);
+    }
+
+    /**
+     * Returns the z coordinate of the specified vertex.
+     *
+     * @param vertex
+     *            The vertex index
+     * @return Returns the z coordinate
+     */
+    public double getZ(int vertex) {
+        return z.get(vertex);
+    }
+
+    /**
+     * Returns the index of the k-th vertex of the specified triangle.
+     *
+     * @param triangle
+     *            The triangle index
+     * @param k
+     *            The vertex position within the triangle, 0, 1 or 2
+     * @return Returns the vertex index
+     */
+    public int getVertex(int triangle, int k) {
+        return triangles.get(3 * triangle + k);
+    }
+
+    /**
+     * Returns the index of the triangle opposite to the k-th vertex of the
+     * specified triangle or {@link IndexedMesh#NO_NEIGHBOUR}.
+     *
+     * @param triangle
+     *            The triangle index
+     * @param k
+     *            The vertex position within the triangle, 0, 1 or 2
+     * @return Returns the neighbour triangle index or
+     *         {@link IndexedMesh#NO_NEIGHBOUR}
+     */
+    public int getNeighbour(int triangle, int k) {
+        return neighbours.get(3 * triangle + k);
+    }
+
+    /**
+     * Returns a new point holding the coordinates of the specified vertex.
+     *
+     * @param vertex
+     *            The vertex index
+     * @return Returns a point view of the vertex
+     */
+    public Point getPoint(int vertex) {
+        return new Point(x.get(vertex), y.get(vertex), z.get(vertex));
+    }
+
+    /**
+     * Verifies the checksum of the data against the header. Every byte of the
+     * file is read once, later calls return right away.
+     *
+     * @throws IOException
+     *             Thrown if the data does not match its checksum
+     */
+    public void verify() throws IOException {
+        if (verified) {
+            return;
+        }
+        CRC32 crc = new CRC32();
+        for (ByteBuffer section : sections) {
+            ByteBuffer bytes = section.duplicate();
+            bytes.clear();
+            crc.update(bytes);
+        }
+        if (crc.getValue() != checksum) {
+            throw new IOException("Checksum of mesh file " + name + " does not match its data.");
+        }
+        verified = true;
+    }
+
+    /**
+     * Copies this mesh into the primitive arrays of a new indexed mesh, for
+     * the algorithms working on {@link IndexedMesh}. The copy takes linear
+     * time and reads the whole file.
+     *
+     * @return Returns the indexed mesh
+     */
+    public IndexedMesh toIndexedMesh() {
+        double[] vx = new double[vertexCount];
+        double[] vy = new double[vertexCount];
+        double[] vz = new double[vertexCount];
+        int[] vertexIndices = new int[3 * triangleCount];
+        int[] triangleIndices = new int[3 * triangleCount];
+        x.duplicate().get(vx);
+        y.duplicate().get(vy);
+        z.duplicate().get(vz);
+        triangles.duplicate().get(vertexIndices);
+        neighbours.duplicate().get(triangleIndices);
+        return new IndexedMesh(vertexCount, vx, vy, vz, triangleCount, vertexIndices, triangleIndices);
+    }
+
+}
@@ -0,0 +1,223 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Binary file format of indexed meshes. A file starts with a header of
+ * {@link #HEADER_SIZE} bytes, followed by the x, y and z coordinates of the
+ * vertices as doubles, the vertex indices of the triangles and the triangle
+ * indices of their neighbours as ints, all in little endian byte order.
+ *
+ * <pre>
+ * offset  size  content
+ *      0     4  magic number
+ *      4     4  format version
+ *      8     4  vertex count
+ *     12     4  triangle count
+ *     16     8  CRC32 of everything after the header
+ *     24     4  CRC32 of the first 24 bytes of the header
+ *     28     4  reserved, 0
+ * </pre>
+ *
+ * Every section is mapped into memory, nothing is parsed. A mapped mesh is
+ * read in place, reading copies the sections into the arrays of an indexed
+ * mesh in bulk. Files of another format version or with a damaged header are
+ * rejected, the checksum of the data is verified on request.
+ */
+public final class MeshFile {
+
+    /**
+     * The bytes "DTIM" read as little endian int.
+     */
+    public static final int MAGIC = 0x4D495444;
+
+    /**
+     * The format version written by this class, files of other versions are
+     * rejected.
+     */
+    public static final int VERSION = 1;
+
+    public static final int HEADER_SIZE = 32;
+
+    private MeshFile() {
+    }
+
+    /**
+     * Writes an indexed mesh to a file, replacing the file if it exists.
+     *
+     * @param mesh
+     *            The mesh
+     * @param path
+     *            The path of the file
+     * @throws IOException
+     *             Thrown if the file cannot be written
+     */
+    public static void write(IndexedMesh mesh, Path path) throws IOException {
+        int vertexCount = mesh.vertexCount;
+        int triangleCount = mesh.triangleCount;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            CRC32 checksum = new CRC32();
+            long offset = HEADER_SIZE;
+
+            MappedByteBuffer buffer = map(channel, FileChannel.MapMode.READ_WRITE, offset, 8L * vertexCount);
+            buffer.asDoubleBuffer().put(mesh.x, 0, vertexCount);
+            offset += update(checksum, buffer);
+
+            buffer = map(channel, FileChannel.MapMode.READ_WRITE, offset, 8L * vertexCount);
+            buffer.asDoubleBuffer().put(mesh.y, 0, vertexCount);
+            offset += update(checksum, buffer);
+
+            buffer = map(channel, FileChannel.MapMode.READ_WRITE, offset, 8L * vertexCount);
+            buffer.asDoubleBuffer().put(mesh.z, 0, vertexCount);
+            offset += update(checksum, buffer);
+
+            buffer = map(channel, FileChannel.MapMode.READ_WRITE, offset, 12L * triangleCount);
+            buffer.asIntBuffer().put(mesh.triangles, 0, 3 * triangleCount);
+            offset += update(checksum, buffer);
+
+            buffer = map(channel, FileChannel.MapMode.READ_WRITE, offset, 12L * triangleCount);
+            buffer.asIntBuffer().put(mesh.neighbours, 0, 3 * triangleCount);
+            offset += update(checksum, buffer);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.putInt(vertexCount);
+            header.putInt(triangleCount);
+            header.putLong(checksum.getValue());
+            header.putInt(headerChecksum(header));
+            header.putInt(0);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        }
+    }
+
+    /**
+     * Reads an indexed mesh from a file. Only the header is verified, see
+     * {@link #read(Path, boolean)}.
+     *
+     * @param path
+     *            The path of the file
+     * @return Returns the mesh
+     * @throws IOException
+     *             Thrown if the file cannot be read, is of another format
+     *             version or has a damaged header
+     */
+    public static IndexedMesh read(Path path) throws IOException {
+        return read(path, false);
+    }
+
+    /**
+     * Reads an indexed mesh from a file into the arrays of a new mesh. The
+     * header is always verified, verifying the checksum of the data means
+     * reading every byte of the file once more. Use {@link #map(Path)} to
+     * access a mesh without loading it.
+     *
+     * @param path
+     *            The path of the file
+     * @param verifyData
+     *            Whether to verify the checksum of the data
+     * @return Returns the mesh
+     * @throws IOException
+     *             Thrown if the file cannot be read, is of another format
+     *             version or is damaged
+     */
+    public static IndexedMesh read(Path path, boolean verifyData) throws IOException {
+        MappedMesh mesh = map(path);
+        if (verifyData) {
+            mesh.verify();
+        }
+        return mesh.toIndexedMesh();
+    }
+
+    /**
+     * Maps a mesh file into memory without copying it. The header is
+     * verified, the data is accessed in place and its checksum only verified
+     * by {@link MappedMesh#verify()}, so this takes constant time no matter
+     * the size of the file.
+     *
+     * @param path
+     *            The path of the file
+     * @return Returns a read-only view of the mesh
+     * @throws IOException
+     *             Thrown if the file cannot be read, is of another format
+     *             version or has a damaged header
+     */
+    public static MappedMesh map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Mesh file " + path + " is too short.");
+            }
+            ByteBuffer header = map(channel, FileChannel.MapMode.READ_ONLY, 0L, HEADER_SIZE);
+
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("File " + path + " is not a mesh file.");
+            }
+            if (header.getInt(24) != headerChecksum(header)) {
+                throw new IOException("Header of mesh file " + path + " is damaged.");
+            }
+            int version = header.getInt(4);
+            if (version != VERSION) {
+                throw new IOException("Mesh file " + path + " has version " + version + ", expected " + VERSION + ".");
+            }
+
+            int vertexCount = header.getInt(8);
+            int triangleCount = header.getInt(12);
+            long checksum = header.getLong(16);
+            if (vertexCount < 0 || triangleCount < 0
+                    || channel.size() != HEADER_SIZE + 24L * vertexCount + 24L * triangleCount) {
+                throw new IOException("Size of mesh file " + path + " does not match its header.");
+            }
+
+            /**
+             * Mappings stay valid after the channel is closed.
+             */
+            ByteBuffer[] sections = new ByteBuffer[5];
+            long offset = HEADER_SIZE;
+            for (int i = 0; i < sections.length; i++) {
+                long size = i < 3 ? 8L * vertexCount : 12L * triangleCount;
+                sections[i] = map(channel, FileChannel.MapMode.READ_ONLY, offset, size);
+                offset += size;
+            }
+            return new MappedMesh(path.toString(), vertexCount, triangleCount, checksum, sections);
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long offset, long size)
+            throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Mesh section of " + size + " bytes is too large to be mapped.");
+        }
+        MappedByteBuffer buffer = channel.map(mode, offset, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    /**
+     * Adds the bytes of the buffer to the checksum and returns their number.
+     */
+    private static int update(CRC32 checksum, ByteBuffer buffer) {
+        ByteBuffer bytes = buffer.duplicate();
+        bytes.clear();
+        checksum.update(bytes);
+        return buffer.capacity();
+    }
+
+    private static int headerChecksum(ByteBuffer header) {
+        CRC32 checksum = new CRC32();
+        for (int i = 0; i < 24; i++) {
+            checksum.update(header.get(i));
+        }
+        return (int) checksum.getValue();
+    }
+
+}
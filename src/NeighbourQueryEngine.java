@@ -0,0 +1,425 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Query engine answering natural neighbour interpolation and nearest vertex
+ * queries on a Delaunay triangulation stored as indexed mesh. Both queries
+ * locate the point with a {@link TriangleGridIndex} and then only explore the
+ * triangles and vertices around it through the neighbour links, so their
+ * cost depends on the local degree of the triangulation rather than on its
+ * size. Instances are immutable and may be shared between threads.
+ */
+public final class NeighbourQueryEngine {
+
+    /**
+     * The depth reported for points outside of the mesh.
+     */
+    public static final double NO_DATA = Double.NaN;
+
+    /**
+     * Number of queries every task of a parallel batch handles.
+     */
+    private static final int PARALLEL_CHUNK = 1 << 12;
+
+    private final IndexedMesh mesh;
+    private final TriangleGridIndex index;
+    private final double[] circumcenters;
+    private final boolean[] counterclockwise;
+
+    private final double minX;
+    private final double minY;
+    private final double maxX;
+    private final double maxY;
+
+    private final int[] adjacencyStart;
+    private final int[] adjacency;
+
+    /**
+     * Constructor of the neighbour query engine class used to create a new
+     * engine for a mesh. The mesh must not be changed afterwards.
+     *
+     * @param mesh
+     *            The mesh, expected to be a complete Delaunay triangulation
+     */
+    public NeighbourQueryEngine(final IndexedMesh mesh) {
+        this(mesh, new TriangleGridIndex(mesh));
+    }
+
+    /**
+     * Constructor of the neighbour query engine class used to create a new
+     * engine sharing an existing index of the mesh.
+     *
+     * @param mesh
+     *            The mesh, expected to be a complete Delaunay triangulation
+     * @param index
+     *            The index of the mesh
+     */
+    public NeighbourQueryEngine(final IndexedMesh mesh, TriangleGridIndex index) {
+        if (index.getMesh() != mesh) {
+            throw new IllegalArgumentException("Index was built for another mesh.");
+        }
+        this.mesh = mesh;
+        this.index = index;
+        this.circumcenters = new double[2 * mesh.triangleCount];
+        this.counterclockwise = new boolean[mesh.triangleCount];
+
+        final double[] x = mesh.x;
+        final double[] y = mesh.y;
+        final int[] triangles = mesh.triangles;
+        IntStream.range(0, mesh.triangleCount).parallel().forEach(t -> {
+            int a = triangles[3 * t];
+            int b = triangles[3 * t + 1];
+            int c = triangles[3 * t + 2];
+            circumcenter(x[a], y[a], x[b], y[b], x[c], y[c], circumcenters, 2 * t);
+            counterclockwise[t] = Predicates.orientation(x[a], y[a], x[b], y[b], x[c], y[c]) > 0.0d;
+        });
+
+        /**
+         * Every edge is entered once, by the triangle with the larger index
+         * or by its only triangle on the boundary, and stored in both
+         * directions. The bounding box of the vertices is taken on the way.
+         */
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        adjacencyStart = new int[mesh.vertexCount + 1];
+        for (int t = 0; t < mesh.triangleCount; t++) {
+            for (int k = 0; k < 3; k++) {
+                int vertex = triangles[3 * t + k];
+                minX = Math.min(minX, x[vertex]);
+                minY = Math.min(minY, y[vertex]);
+                maxX = Math.max(maxX, x[vertex]);
+                maxY = Math.max(maxY, y[vertex]);
+                if (mesh.neighbours[3 * t + k] < t) {
+                    adjacencyStart[triangles[3 * t + (k + 1) % 3] + 1]++;
+                    adjacencyStart[triangles[3 * t + (k + 2) % 3] + 1]++;
+                }
+            }
+        }
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+
+        for (int v = 0; v < mesh.vertexCount; v++) {
+            adjacencyStart[v + 1] += adjacencyStart[v];
+        }
+        adjacency = new int[adjacencyStart[mesh.vertexCount]];
+        int[] fill = Arrays.copyOf(adjacencyStart, mesh.vertexCount);
+        for (int t = 0; t < mesh.triangleCount; t++) {
+            for (int k = 0; k < 3; k++) {
+                if (mesh.neighbours[3 * t + k] < t) {
+                    int u = triangles[3 * t + (k + 1) % 3];
+                    int w = triangles[3 * t + (k + 2) % 3];
+                    adjacency[fill[u]++] = w;
+                    adjacency[fill[w]++] = u;
+                }
+            }
+        }
+    }
+
+    /**
+     * Interpolates the depth at a point with Sibson's natural neighbour
+     * interpolation. The weight of a vertex is the area the Voronoi cell of
+     * the point would take from the cell of the vertex if the point was
+     * inserted, which gives a surface that is smooth everywhere except at
+     * the vertices.
+     *
+     * @param x
+     *            The x coordinate of the point
+     * @param y
+     *            The y coordinate of the point
+     * @return Returns the depth or {@link #NO_DATA} if the point lies outside
+     *         of the mesh
+     */
+    public double interpolate(double x, double y) {
+        return interpolate(x, y, new Cavity());
+    }
+
+    /**
+     * Interpolates the depths at a batch of points in parallel, see
+     * {@link #interpolate(double, double)}. The point i is (x[i], y[i]) and
+     * its depth is written to depths[i].
+     *
+     * @param x
+     *            The x coordinates of the points
+     * @param y
+     *            The y coordinates of the points
+     * @param depths
+     *            The array receiving the depths
+     */
+    public void interpolate(final double[] x, final double[] y, final double[] depths) {
+        if (y.length < x.length || depths.length < x.length) {
+            throw new IllegalArgumentException("Coordinate or depth array is shorter than the batch.");
+        }
+        final int size = x.length;
+        IntStream.range(0, (size + PARALLEL_CHUNK - 1) / PARALLEL_CHUNK).parallel().forEach(chunk -> {
+            Cavity cavity = new Cavity();
+            int to = Math.min((chunk + 1) * PARALLEL_CHUNK, size);
+            for (int i = chunk * PARALLEL_CHUNK; i < to; i++) {
+                depths[i] = interpolate(x[i], y[i], cavity);
+            }
+        });
+    }
+
+    /**
+     * Returns the index of the vertex nearest to a point. Starting at the
+     * triangle containing the point, the search moves to the nearest
+     * neighbour of the current vertex until no neighbour is nearer, which
+     * ends at the nearest vertex of a Delaunay triangulation.
+     *
+     * @param x
+     *            The x coordinate of the point
+     * @param y
+     *            The y coordinate of the point
+     * @return Returns the index of the nearest vertex or -1 if the mesh has
+     *         no triangles
+     */
+    public int nearestVertex(double x, double y) {
+        if (mesh.triangleCount == 0) {
+            return -1;
+        }
+
+        int triangle = index.locate(x, y);
+        if (triangle < 0) {
+            /**
+             * Points outside start at the triangle nearest to the clamped
+             * point, or anywhere if that lies in a hole of the mesh.
+             */
+            triangle = Math.max(index.locate(Math.min(Math.max(x, minX), maxX),
+                    Math.min(Math.max(y, minY), maxY)), 0);
+        }
+
+        int vertex = mesh.triangles[3 * triangle];
+        double distance = distanceSquared(vertex, x, y);
+        while (true) {
+            int nearest = vertex;
+            for (int i = adjacencyStart[vertex]; i < adjacencyStart[vertex + 1]; i++) {
+                double neighbourDistance = distanceSquared(adjacency[i], x, y);
+                if (neighbourDistance < distance) {
+                    distance = neighbourDistance;
+                    nearest = adjacency[i];
+                }
+            }
+            if (nearest == vertex) {
+                return vertex;
+            }
+            vertex = nearest;
+        }
+    }
+
+    /**
+     * Finds the nearest vertices of a batch of points in parallel, see
+     * {@link #nearestVertex(double, double)}. The point i is (x[i], y[i]) and
+     * the index of its nearest vertex is written to vertices[i].
+     *
+     * @param x
+     *            The x coordinates of the points
+     * @param y
+     *            The y coordinates of the points
+     * @param vertices
+     *            The array receiving the vertex indices
+     */
+    public void nearestVertices(final double[] x, final double[] y, final int[] vertices) {
+        if (y.length < x.length || vertices.length < x.length) {
+            throw new IllegalArgumentException("Coordinate or vertex array is shorter than the batch.");
+        }
+        IntStream.range(0, x.length).parallel().forEach(i -> vertices[i] = nearestVertex(x[i], y[i]));
+    }
+
+    private double distanceSquared(int vertex, double x, double y) {
+        double dx = mesh.x[vertex] - x;
+        double dy = mesh.y[vertex] - y;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Computes the natural neighbour interpolation. The cavity of the point
+     * is the set of triangles whose circumcircle contains it, exactly the
+     * triangles its insertion would replace. The area the new Voronoi cell
+     * takes from the cell of a vertex on the boundary of the cavity is the
+     * polygon formed by the circumcenters of the two new triangles at the
+     * vertex and the circumcenters of the cavity triangles around it.
+     */
+    private double interpolate(double px, double py, Cavity cavity) {
+        int start = index.locate(px, py);
+        if (start < 0) {
+            return NO_DATA;
+        }
+
+        double[] x = mesh.x;
+        double[] y = mesh.y;
+        double[] z = mesh.z;
+        int[] triangles = mesh.triangles;
+        int[] neighbours = mesh.neighbours;
+
+        for (int k = 0; k < 3; k++) {
+            int vertex = triangles[3 * start + k];
+            if (x[vertex] == px && y[vertex] == py) {
+                return z[vertex];
+            }
+        }
+
+        cavity.clear();
+        cavity.add(start);
+        for (int i = 0; i < cavity.size; i++) {
+            int t = cavity.triangles[i];
+            for (int k = 0; k < 3; k++) {
+                int neighbour = neighbours[3 * t + k];
+                if (neighbour >= 0 && !cavity.contains(neighbour) && inCircumcircle(neighbour, px, py)) {
+                    cavity.add(neighbour);
+                }
+            }
+        }
+
+        double weightSum = 0.0d;
+        double depthSum = 0.0d;
+
+        for (int i = 0; i < cavity.size; i++) {
+            int t = cavity.triangles[i];
+            for (int k = 0; k < 3; k++) {
+                int neighbour = neighbours[3 * t + k];
+                if (neighbour >= 0 && cavity.contains(neighbour)) {
+                    continue;
+                }
+
+                /**
+                 * The boundary edge from u to v in counterclockwise order
+                 * around the cavity ends at the vertex v, whose stolen area
+                 * is collected by turning around v through the cavity.
+                 */
+                int u = triangles[3 * t + (counterclockwise[t] ? (k + 1) % 3 : (k + 2) % 3)];
+                int v = triangles[3 * t + (counterclockwise[t] ? (k + 2) % 3 : (k + 1) % 3)];
+
+                if (Predicates.orientation(x[u], y[u], x[v], y[v], px, py) == 0.0d) {
+                    /**
+                     * The point lies on a boundary edge of the mesh, where
+                     * the interpolation is linear along the edge.
+                     */
+                    double f = Math.hypot(px - x[u], py - y[u]) / Math.hypot(x[v] - x[u], y[v] - y[u]);
+                    return z[u] + f * (z[v] - z[u]);
+                }
+
+                double area = stolenArea(t, u, v, px, py, cavity);
+                weightSum += area;
+                depthSum += area * z[v];
+            }
+        }
+
+        return weightSum > 0.0d ? depthSum / weightSum : NO_DATA;
+    }
+
+    /**
+     * Returns the area the Voronoi cell of the point takes from the cell of
+     * the vertex v, starting at the cavity triangle t holding the boundary
+     * edge from u to v. Coordinates are taken relative to the point to keep
+     * the shoelace sums accurate.
+     */
+    private double stolenArea(int t, int u, int v, double px, double py, Cavity cavity) {
+        double[] x = mesh.x;
+        double[] y = mesh.y;
+        double[] center = cavity.center;
+
+        circumcenter(0.0d, 0.0d, x[u] - px, y[u] - py, x[v] - px, y[v] - py, center, 0);
+        double firstX = center[0];
+        double firstY = center[1];
+        double previousX = firstX;
+        double previousY = firstY;
+        double area = 0.0d;
+
+        int triangle = t;
+        int other = u;
+        while (true) {
+            double currentX = circumcenters[2 * triangle] - px;
+            double currentY = circumcenters[2 * triangle + 1] - py;
+            area += previousX * currentY - previousY * currentX;
+            previousX = currentX;
+            previousY = currentY;
+
+            int next = mesh.triangles[3 * triangle];
+            int opposite = 0;
+            for (int k = 0; k < 3; k++) {
+                int vertex = mesh.triangles[3 * triangle + k];
+                if (vertex != v && vertex != other) {
+                    next = vertex;
+                } else if (vertex == other) {
+                    opposite = k;
+                }
+            }
+
+            int neighbour = mesh.neighbours[3 * triangle + opposite];
+            if (neighbour < 0 || !cavity.contains(neighbour)) {
+                circumcenter(0.0d, 0.0d, x[v] - px, y[v] - py, x[next] - px, y[next] - py, center, 0);
+                area += previousX * center[1] - previousY * center[0];
+                area += center[0] * firstY - center[1] * firstX;
+                return 0.5d * Math.abs(area);
+            }
+            other = next;
+            triangle = neighbour;
+        }
+    }
+
+    private boolean inCircumcircle(int t, double px, double py) {
+        int a = mesh.triangles[3 * t];
+        int b = mesh.triangles[3 * t + 1];
+        int c = mesh.triangles[3 * t + 2];
+        return Predicates.isInCircumcircle(mesh.x[a], mesh.y[a], mesh.x[b], mesh.y[b], mesh.x[c], mesh.y[c], px, py);
+    }
+
+    private static void circumcenter(double ax, double ay, double bx, double by, double cx, double cy,
+            double[] center, int offset) {
+        double ux = bx - ax;
+        double uy = by - ay;
+        double vx = cx - ax;
+        double vy = cy - ay;
+        double d = 2.0d * (ux * vy - uy * vx);
+        double u2 = ux * ux + uy * uy;
+        double v2 = vx * vx + vy * vy;
+        center[offset] = ax + (vy * u2 - uy * v2) / d;
+        center[offset + 1] = ay + (ux * v2 - vx * u2) / d;
+    }
+
+    /**
+     * Returns the mesh the queries run on.
+     *
+     * @return Returns the mesh
+     */
+    public IndexedMesh getMesh() {
+        return mesh;
+    }
+
+    /**
+     * The triangles of the cavity of one query, reused by the queries of a
+     * batch. Cavities hold a handful of triangles, so a linear search is the
+     * fastest set.
+     */
+    private static final class Cavity {
+
+        int[] triangles = new int[16];
+        int size;
+        final double[] center = new double[2];
+
+        void clear() {
+            size = 0;
+        }
+
+        void add(int triangle) {
+            if (size == triangles.length) {
+                triangles = Arrays.copyOf(triangles, 2 * size);
+            }
+            triangles[size++] = triangle;
+        }
+
+        boolean contains(int triangle) {
+            for (int i = 0; i < size; i++) {
+                if (triangles[i] == triangle) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+    }
+
+}
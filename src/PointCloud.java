@@ -0,0 +1,93 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Point cloud implementation. The coordinates of the points are stored in
+ * primitive arrays, the point i is (x[i], y[i], z[i]).
+ */
+public class PointCloud {
+
+    final int size;
+    final double[] x;
+    final double[] y;
+    final double[] z;
+
+    /**
+     * Constructor of the point cloud class used to create a new point cloud
+     * from primitive arrays. The arrays are used directly, not copied, and may
+     * be longer than required by the size.
+     *
+     * @param size
+     *            The number of points
+     * @param x
+     *            The x coordinates of the points
+     * @param y
+     *            The y coordinates of the points
+     * @param z
+     *            The z coordinates of the points
+     */
+    public PointCloud(int size, double[] x, double[] y, double[] z) {
+        if (x.length < size || y.length < size || z.length < size) {
+            throw new IllegalArgumentException("Coordinate arrays are shorter than the size.");
+        }
+        this.size = size;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    /**
+     * Creates a point set holding a new point for every point of the cloud.
+     *
+     * @return Returns the point set
+     */
+    public List<Point> toPointSet() {
+        List<Point> pointSet = new ArrayList<Point>(size);
+        for (int i = 0; i < size; i++) {
+            pointSet.add(new Point(x[i], y[i], z[i]));
+        }
+        return pointSet;
+    }
+
+    /**
+     * Returns the number of points.
+     *
+     * @return Returns the number of points
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the x coordinates of the points.
+     *
+     * @return Returns the x coordinates
+     */
+    public double[] getX() {
+        return x;
+    }
+
+    /**
+     * Returns the y coordinates of the points.
+     *
+     * @return Returns the y coordinates
+     */
+    public double[] getY() {
+        return y;
+    }
+
+    /**
+     * Returns the z coordinates of the points.
+     *
+     * @return Returns the z coordinates
+     */
+    public double[] getZ() {
+        return z;
+    }
+
+    @Override
+    public String toString() {
+        return "PointCloud[" + size + " points]";
+    }
+
+}
@@ -0,0 +1,335 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Reader of point clouds stored as text, one point per line. A line holds
+ * the x, y and optionally z coordinate separated by spaces, tabs or
+ * semicolons, a missing z coordinate is read as 0. Both the dot and the comma
+ * are accepted as decimal separator, so files like 1.txt are read as well as
+ * vertexes.txt. Empty lines are skipped.
+ *
+ * The file is memory mapped and split into chunks on line boundaries, the
+ * chunks are parsed in parallel straight into primitive arrays. Numbers are
+ * parsed in double precision without creating strings, only numbers that
+ * cannot be converted exactly fall back to {@link Double#parseDouble(String)}.
+ */
+public final class PointCloudReader {
+
+    /**
+     * Nominal number of bytes per chunk, the actual chunks end at the next
+     * line break.
+     */
+    private static final int CHUNK_SIZE = 1 << 23;
+
+    /**
+     * Mantissas with more significant digits are not accumulated exactly.
+     */
+    private static final int MAX_DIGITS = 18;
+
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    private PointCloudReader() {
+    }
+
+    /**
+     * Reads the point cloud stored in a file.
+     *
+     * @param path
+     *            The path of the file
+     * @return Returns the point cloud
+     * @throws IOException
+     *             Thrown if the file cannot be read or a line does not hold a
+     *             valid point
+     */
+    public static PointCloud read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] boundaries = chunkBoundaries(channel);
+
+            List<Chunk> chunks;
+            try {
+                chunks = IntStream.range(0, boundaries.length - 1).parallel()
+                        .mapToObj(i -> parse(channel, boundaries[i], boundaries[i + 1])).collect(Collectors.toList());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            long size = 0L;
+            for (Chunk chunk : chunks) {
+                size += chunk.size;
+            }
+            if (size > Integer.MAX_VALUE - 8) {
+                throw new IOException("Point cloud " + path + " holds too many points.");
+            }
+
+            double[] x = new double[(int) size];
+            double[] y = new double[(int) size];
+            double[] z = new double[(int) size];
+            int offset = 0;
+            for (Chunk chunk : chunks) {
+                System.arraycopy(chunk.x, 0, x, offset, chunk.size);
+                System.arraycopy(chunk.y, 0, y, offset, chunk.size);
+                System.arraycopy(chunk.z, 0, z, offset, chunk.size);
+                offset += chunk.size;
+            }
+            return new PointCloud(offset, x, y, z);
+        }
+    }
+
+    /**
+     * Returns the file offsets the chunks start at, followed by the size of
+     * the file. Every nominal boundary is moved behind the next line break,
+     * so each chunk holds whole lines.
+     */
+    private static long[] chunkBoundaries(FileChannel channel) throws IOException {
+        long fileSize = channel.size();
+        List<Long> boundaries = new ArrayList<Long>();
+        boundaries.add(0L);
+
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long boundary = 0L;
+        while (fileSize - boundary > CHUNK_SIZE) {
+            long position = boundary + CHUNK_SIZE;
+            boundary = -1L;
+            while (boundary < 0L && position < fileSize) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                for (int i = 0; i < read; i++) {
+                    if (buffer.get(i) == '\n') {
+                        boundary = position + i + 1;
+                        break;
+                    }
+                }
+                position += Math.max(read, 0);
+            }
+            if (boundary < 0L || boundary >= fileSize) {
+                break;
+            }
+            boundaries.add(boundary);
+        }
+        boundaries.add(fileSize);
+
+        long[] result = new long[boundaries.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = boundaries.get(i);
+        }
+        return result;
+    }
+
+    private static Chunk parse(FileChannel channel, long from, long to) {
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+            Chunk chunk = new Chunk(buffer, from);
+            chunk.parse();
+            return chunk;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The points parsed from the lines of one chunk of the file.
+     */
+    private static final class Chunk {
+
+        private final MappedByteBuffer buffer;
+        private final long fileOffset;
+        private final int limit;
+        private int position;
+
+        int size;
+        double[] x;
+        double[] y;
+        double[] z;
+
+        Chunk(MappedByteBuffer buffer, long fileOffset) {
+            this.buffer = buffer;
+            this.fileOffset = fileOffset;
+            this.limit = buffer.limit();
+            int capacity = limit / 16 + 16;
+            x = new double[capacity];
+            y = new double[capacity];
+            z = new double[capacity];
+        }
+
+        void parse() throws IOException {
+            while (position < limit) {
+                int lineStart = position;
+                skipSeparators();
+                if (isLineEnd()) {
+                    position++;
+                    continue;
+                }
+
+                double px = parseNumber(lineStart);
+                skipSeparators();
+                if (isLineEnd()) {
+                    throw malformed(lineStart);
+                }
+                double py = parseNumber(lineStart);
+                skipSeparators();
+                double pz = 0.0d;
+                if (!isLineEnd()) {
+                    pz = parseNumber(lineStart);
+                    skipSeparators();
+                    if (!isLineEnd()) {
+                        throw malformed(lineStart);
+                    }
+                }
+                add(px, py, pz);
+                position++;
+            }
+        }
+
+        private void add(double px, double py, double pz) {
+            if (size == x.length) {
+                int capacity = 2 * size;
+                x = Arrays.copyOf(x, capacity);
+                y = Arrays.copyOf(y, capacity);
+                z = Arrays.copyOf(z, capacity);
+            }
+            x[size] = px;
+            y[size] = py;
+            z[size] = pz;
+            size++;
+        }
+
+        private void skipSeparators() {
+            while (position < limit) {
+                byte b = buffer.get(position);
+                if (b != ' ' && b != '\t' && b != ';' && b != '\r') {
+                    return;
+                }
+                position++;
+            }
+        }
+
+        /**
+         * Returns true at the end of a line or of the chunk. A carriage return
+         * is skipped as a separator, so both line break styles are accepted.
+         */
+        private boolean isLineEnd() {
+            return position >= limit || buffer.get(position) == '\n';
+        }
+
+        private boolean isNumberEnd() {
+            if (position >= limit) {
+                return true;
+            }
+            byte b = buffer.get(position);
+            return b == ' ' || b == '\t' || b == ';' || b == '\r' || b == '\n';
+        }
+
+        private boolean isDigit() {
+            if (position >= limit) {
+                return false;
+            }
+            byte b = buffer.get(position);
+            return b >= '0' && b <= '9';
+        }
+
+        /**
+         * Parses the number at the current position. The significant digits
+         * are accumulated in a long, which is converted with a single
+         * correctly rounded multiplication or division if both it and the
+         * power of ten are exact doubles.
+         */
+        private double parseNumber(int lineStart) throws IOException {
+            int start = position;
+            boolean negative = false;
+            byte b = buffer.get(position);
+            if (b == '-' || b == '+') {
+                negative = b == '-';
+                position++;
+            }
+
+            long mantissa = 0L;
+            int digits = 0;
+            int exponent = 0;
+            boolean anyDigit = false;
+            boolean exact = true;
+
+            while (isDigit()) {
+                int digit = buffer.get(position++) - '0';
+                anyDigit = true;
+                if (digits < MAX_DIGITS) {
+                    mantissa = 10L * mantissa + digit;
+                    if (mantissa != 0L) {
+                        digits++;
+                    }
+                } else {
+                    exponent++;
+                    exact &= digit == 0;
+                }
+            }
+            if (position < limit && (buffer.get(position) == '.' || buffer.get(position) == ',')) {
+                position++;
+                while (isDigit()) {
+                    int digit = buffer.get(position++) - '0';
+                    anyDigit = true;
+                    if (digits < MAX_DIGITS) {
+                        mantissa = 10L * mantissa + digit;
+                        if (mantissa != 0L) {
+                            digits++;
+                        }
+                        exponent--;
+                    } else {
+                        exact &= digit == 0;
+                    }
+                }
+            }
+            if (!anyDigit) {
+                throw malformed(lineStart);
+            }
+
+            if (position < limit && (buffer.get(position) == 'e' || buffer.get(position) == 'E')) {
+                position++;
+                boolean negativeExponent = false;
+                if (position < limit && (buffer.get(position) == '-' || buffer.get(position) == '+')) {
+                    negativeExponent = buffer.get(position) == '-';
+                    position++;
+                }
+                if (!isDigit()) {
+                    throw malformed(lineStart);
+                }
+                int value = 0;
+                while (isDigit()) {
+                    value = Math.min(10 * value + buffer.get(position++) - '0', 100000);
+                }
+                exponent += negativeExponent ? -value : value;
+            }
+            if (!isNumberEnd()) {
+                throw malformed(lineStart);
+            }
+
+            double value;
+            if (exact && mantissa < 1L << 53 && Math.abs(exponent) < POWERS_OF_TEN.length) {
+                value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+            } else {
+                byte[] bytes = new byte[position - start];
+                for (int i = 0; i < bytes.length; i++) {
+                    bytes[i] = buffer.get(start + i);
+                }
+                value = Math.abs(Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII).replace(',', '.')));
+            }
+            return negative ? -value : value;
+        }
+
+        private IOException malformed(int lineStart) {
+            return new IOException("Malformed point in the line at byte " + (fileOffset + lineStart) + ".");
+        }
+
+    }
+
+}
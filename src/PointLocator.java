@@ -0,0 +1,213 @@
+/**
+ * Point location engine used by the Delaunay triangulator to find the triangle
+ * of a triangle soup that contains a given point.
+ */
+public class PointLocator {
+
+    /**
+     * The strategies available to locate a point.
+     */
+    public enum Mode {
+        /**
+         * Walks from a hint triangle across the neighbour links towards the
+         * point. This is the default.
+         */
+        WALK,
+        /**
+         * Scans every triangle of the triangle soup. Slow, but independent of
+         * the neighbour links, which makes it useful for debugging.
+         */
+        LINEAR_SCAN
+    }
+
+    private Mode mode;
+    private int edgeRotation;
+    private Triangle exitTriangle;
+    private int lastStepCount;
+    private boolean lastFallback;
+
+    /**
+     * Constructor of the point locator class used to create a new locator
+     * using the walking strategy.
+     */
+    public PointLocator() {
+        this(Mode.WALK);
+    }
+
+    /**
+     * Constructor of the point locator class used to create a new locator
+     * using the given strategy.
+     *
+     * @param mode
+     *            The strategy used to locate points
+     */
+    public PointLocator(Mode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Returns the triangle of the triangle soup that contains the specified
+     * point, either inside or on its boundary, or null if no such triangle
+     * could be found. In walking mode the
+     * search starts at the hint triangle and steps across the edge that
+     * separates the current triangle from the point until no such edge is
+     * left. If the walk has to cross an edge without neighbour, null is
+     * returned and the triangle owning that edge is available from
+     * {@link #getExitTriangle()}. The point lies outside of a convex
+     * triangulation then, but may lie beyond a concavity of a filtered one,
+     * see {@link TriangleSoup#isConvex()}. If the
+     * walk does not terminate the locator falls back to a linear scan of the
+     * triangle soup.
+     *
+     * @param triangleSoup
+     *            The triangle soup to be searched
+     * @param hint
+     *            The triangle the walk starts at, may be null
+     * @param point
+     *            The point
+     * @return Returns the triangle containing the point or null
+     */
+    public Triangle locate(TriangleSoup triangleSoup, Triangle hint, Point point) {
+        exitTriangle = null;
+        lastStepCount = 0;
+        lastFallback = false;
+        if (mode == Mode.WALK && hint != null) {
+            Triangle triangle = walk(hint, point, triangleSoup.size());
+            if (triangle != null || exitTriangle != null) {
+                return triangle;
+            }
+        }
+        lastFallback = mode == Mode.WALK;
+        return triangleSoup.findContainingTriangleNew(point);
+    }
+
+    /**
+     * Walks from the start triangle towards the point. The edge the walk
+     * entered a triangle through is not tested again, and the order the
+     * remaining edges are tested in is rotated on every step, which prevents
+     * the walk from cycling on degenerate input.
+     *
+     * @param start
+     *            The triangle the walk starts at
+     * @param point
+     *            The point
+     * @param maxSteps
+     *            The maximal number of steps before the walk gives up
+     * @return Returns the triangle containing the point or null if the walk
+     *         left the triangulation or gave up
+     */
+    private Triangle walk(Triangle start, Point point, int maxSteps) {
+        Triangle previous = null;
+        Triangle current = start;
+
+        for (int step = 0; step <= maxSteps; step++) {
+            Triangle next = null;
+            int first = edgeRotation++ % 3;
+
+            for (int i = 0; i < 3 && next == null; i++) {
+                switch ((first + i) % 3) {
+                case 0:
+                    if ((previous == null || current.neighbourOppositeA != previous)
+                            && separates(current.b, current.c, current.a, point)) {
+                        next = current.neighbourOppositeA;
+                        if (next == null) {
+                            exitTriangle = current;
+                            return null;
+                        }
+                    }
+                    break;
+                case 1:
+                    if ((previous == null || current.neighbourOppositeB != previous)
+                            && separates(current.c, current.a, current.b, point)) {
+                        next = current.neighbourOppositeB;
+                        if (next == null) {
+                            exitTriangle = current;
+                            return null;
+                        }
+                    }
+                    break;
+                default:
+                    if ((previous == null || current.neighbourOppositeC != previous)
+                            && separates(current.a, current.b, current.c, point)) {
+                        next = current.neighbourOppositeC;
+                        if (next == null) {
+                            exitTriangle = current;
+                            return null;
+                        }
+                    }
+                    break;
+                }
+            }
+
+            if (next == null) {
+                return current;
+            }
+            lastStepCount++;
+            previous = current;
+            current = next;
+        }
+
+        return null;
+    }
+
+    /**
+     * Tests if the line through the first two points strictly separates the
+     * third point from the tested point.
+     */
+    private boolean separates(Point lineA, Point lineB, Point opposite, Point point) {
+        double side = Predicates.orientation(lineA.x, lineA.y, lineB.x, lineB.y, point.x, point.y);
+        double oppositeSide = Predicates.orientation(lineA.x, lineA.y, lineB.x, lineB.y, opposite.x, opposite.y);
+        return (side > 0.0d && oppositeSide < 0.0d) || (side < 0.0d && oppositeSide > 0.0d);
+    }
+
+    /**
+     * Returns the triangle the last walk left the triangulation from, or null
+     * if the last walk did not leave the triangulation. One of the edges of
+     * this triangle without neighbour separates the triangle from the located
+     * point.
+     *
+     * @return Returns the triangle the last walk left the triangulation from
+     */
+    public Triangle getExitTriangle() {
+        return exitTriangle;
+    }
+
+    /**
+     * Returns the number of steps the last walk took from the hint triangle.
+     *
+     * @return Returns the number of steps of the last walk
+     */
+    public int getLastStepCount() {
+        return lastStepCount;
+    }
+
+    /**
+     * Returns true if the last point location in walking mode fell back to a
+     * linear scan because there was no hint or the walk did not terminate.
+     *
+     * @return Returns true if the last point location fell back to a scan
+     */
+    public boolean isLastFallback() {
+        return lastFallback;
+    }
+
+    /**
+     * Returns the strategy used to locate points.
+     *
+     * @return Returns the strategy used to locate points
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Sets the strategy used to locate points.
+     *
+     * @param mode
+     *            The strategy used to locate points
+     */
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+}
@@ -0,0 +1,644 @@
+/**
+ * Geometric predicates working on raw coordinates. None of the methods
+ * allocates, and all of them are small and static so the JIT can inline them
+ * into the triangulation and query loops.
+ * <p>
+ * The orientation and in-circle tests are adaptive in the manner of Shewchuk,
+ * Adaptive Precision Floating-Point Arithmetic and Fast Robust Geometric
+ * Predicates. The determinant is first evaluated in plain floating point
+ * together with a bound on its rounding error. Only if the result is too close
+ * to zero to trust its sign, it is refined in stages of increasing precision,
+ * each with its own error bound, up to an evaluation in exact expansion
+ * arithmetic. The expansions are written into scratch buffers kept per thread.
+ * The sign of the result is therefore always exact, and a result of zero
+ * reliably identifies colinear or cocircular points.
+ */
+public final class Predicates {
+
+    private static final double EPSILON;
+    private static final double SPLITTER;
+    private static final double RESULT_ERROR_BOUND;
+    private static final double ORIENTATION_ERROR_BOUND;
+    private static final double ORIENTATION_ERROR_BOUND_B;
+    private static final double ORIENTATION_ERROR_BOUND_C;
+    private static final double IN_CIRCLE_ERROR_BOUND;
+    private static final double IN_CIRCLE_ERROR_BOUND_B;
+    private static final double IN_CIRCLE_ERROR_BOUND_C;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    static {
+        double epsilon = 1.0d;
+        double splitter = 1.0d;
+        boolean everyOther = true;
+        do {
+            epsilon *= 0.5d;
+            if (everyOther) {
+                splitter *= 2.0d;
+            }
+            everyOther = !everyOther;
+        } while (1.0d + epsilon != 1.0d);
+
+        EPSILON = epsilon;
+        SPLITTER = splitter + 1.0d;
+        RESULT_ERROR_BOUND = (3.0d + 8.0d * EPSILON) * EPSILON;
+        ORIENTATION_ERROR_BOUND = (3.0d + 16.0d * EPSILON) * EPSILON;
+        ORIENTATION_ERROR_BOUND_B = (2.0d + 12.0d * EPSILON) * EPSILON;
+        ORIENTATION_ERROR_BOUND_C = (9.0d + 64.0d * EPSILON) * EPSILON * EPSILON;
+        IN_CIRCLE_ERROR_BOUND = (10.0d + 96.0d * EPSILON) * EPSILON;
+        IN_CIRCLE_ERROR_BOUND_B = (4.0d + 48.0d * EPSILON) * EPSILON;
+        IN_CIRCLE_ERROR_BOUND_C = (44.0d + 576.0d * EPSILON) * EPSILON * EPSILON;
+    }
+
+    private Predicates() {
+    }
+
+    /**
+     * Computes twice the signed area of the triangle ABC. The result is
+     * positive if the triangle is oriented counterclockwise (CCW), negative if
+     * it is oriented clockwise (CW) and zero if the three points are colinear.
+     * The sign of the result is exact. See Real-Time Collision Detection,
+     * chap. 3, p. 32.
+     *
+     * @return Returns the orientation determinant of the triangle ABC
+     */
+    public static double orientation(double ax, double ay, double bx, double by, double cx, double cy) {
+        double detLeft = (ax - cx) * (by - cy);
+        double detRight = (ay - cy) * (bx - cx);
+        double det = detLeft - detRight;
+        double detSum;
+
+        if (detLeft > 0.0d) {
+            if (detRight <= 0.0d) {
+                return det;
+            }
+            detSum = detLeft + detRight;
+        } else if (detLeft < 0.0d) {
+            if (detRight >= 0.0d) {
+                return det;
+            }
+            detSum = -detLeft - detRight;
+        } else {
+            return det;
+        }
+
+        double errorBound = ORIENTATION_ERROR_BOUND * detSum;
+        if (det >= errorBound || -det >= errorBound) {
+            return det;
+        }
+
+        return orientationAdaptive(ax, ay, bx, by, cx, cy, detSum);
+    }
+
+    /**
+     * Refines the orientation determinant in the stages of Shewchuk's
+     * orient2dadapt. First the determinant of the rounded coordinate
+     * differences is computed exactly, then the rounding errors of the
+     * differences are added as first order correction, and only if neither
+     * result can be trusted the remaining terms are added exactly.
+     */
+    private static double orientationAdaptive(double ax, double ay, double bx, double by, double cx, double cy,
+            double detSum) {
+        Scratch scratch = SCRATCH.get();
+        double acx = ax - cx;
+        double bcx = bx - cx;
+        double acy = ay - cy;
+        double bcy = by - cy;
+
+        crossProduct(acx, bcy, acy, bcx, scratch.b);
+        double det = approximate(4, scratch.b);
+        double errorBound = ORIENTATION_ERROR_BOUND_B * detSum;
+        if (det >= errorBound || -det >= errorBound) {
+            return det;
+        }
+
+        double acxTail = twoDiffTail(ax, cx, acx);
+        double bcxTail = twoDiffTail(bx, cx, bcx);
+        double acyTail = twoDiffTail(ay, cy, acy);
+        double bcyTail = twoDiffTail(by, cy, bcy);
+        if (acxTail == 0.0d && acyTail == 0.0d && bcxTail == 0.0d && bcyTail == 0.0d) {
+            return det;
+        }
+
+        errorBound = ORIENTATION_ERROR_BOUND_C * detSum + RESULT_ERROR_BOUND * Math.abs(det);
+        det += (acx * bcyTail + bcy * acxTail) - (acy * bcxTail + bcx * acyTail);
+        if (det >= errorBound || -det >= errorBound) {
+            return det;
+        }
+
+        crossProduct(acxTail, bcy, acyTail, bcx, scratch.u);
+        int c1Length = sum(4, scratch.b, 4, scratch.u, scratch.c1);
+        crossProduct(acx, bcyTail, acy, bcxTail, scratch.u);
+        int c2Length = sum(c1Length, scratch.c1, 4, scratch.u, scratch.c2);
+        crossProduct(acxTail, bcyTail, acyTail, bcxTail, scratch.u);
+        int dLength = sum(c2Length, scratch.c2, 4, scratch.u, scratch.d);
+        return scratch.d[dLength - 1];
+    }
+
+    /**
+     * Computes the in-circle determinant of the point D with respect to the
+     * circle through A, B and C. If ABC is oriented counterclockwise the
+     * result is positive when D lies inside the circle, negative when it lies
+     * outside and zero when the four points are cocircular. For a clockwise
+     * triangle the sign is reversed. See Real-Time Collision Detection, chap.
+     * 3, p. 34.
+     *
+     * @return Returns the in-circle determinant
+     */
+    public static double inCircle(double ax, double ay, double bx, double by, double cx, double cy, double dx,
+            double dy) {
+        double adx = ax - dx;
+        double ady = ay - dy;
+        double bdx = bx - dx;
+        double bdy = by - dy;
+        double cdx = cx - dx;
+        double cdy = cy - dy;
+
+        double bdxcdy = bdx * cdy;
+        double cdxbdy = cdx * bdy;
+        double alift = adx * adx + ady * ady;
+
+        double cdxady = cdx * ady;
+        double adxcdy = adx * cdy;
+        double blift = bdx * bdx + bdy * bdy;
+
+        double adxbdy = adx * bdy;
+        double bdxady = bdx * ady;
+        double clift = cdx * cdx + cdy * cdy;
+
+        double det = alift * (bdxcdy - cdxbdy) + blift * (cdxady - adxcdy) + clift * (adxbdy - bdxady);
+
+        double permanent = (Math.abs(bdxcdy) + Math.abs(cdxbdy)) * alift
+                + (Math.abs(cdxady) + Math.abs(adxcdy)) * blift + (Math.abs(adxbdy) + Math.abs(bdxady)) * clift;
+        double errorBound = IN_CIRCLE_ERROR_BOUND * permanent;
+        if (det > errorBound || -det > errorBound) {
+            return det;
+        }
+
+        return inCircleAdaptive(ax, ay, bx, by, cx, cy, dx, dy, permanent);
+    }
+
+    /**
+     * Refines the in-circle determinant in the stages of Shewchuk's
+     * incircleadapt. First the determinant of the rounded coordinate
+     * differences is computed exactly, then the rounding errors of the
+     * differences are added as first order correction, and only if neither
+     * result can be trusted the determinant is evaluated exactly.
+     */
+    private static double inCircleAdaptive(double ax, double ay, double bx, double by, double cx, double cy,
+            double dx, double dy, double permanent) {
+        Scratch scratch = SCRATCH.get();
+        double adx = ax - dx;
+        double bdx = bx - dx;
+        double cdx = cx - dx;
+        double ady = ay - dy;
+        double bdy = by - dy;
+        double cdy = cy - dy;
+
+        int aLength = liftedCross(adx, ady, bdx, cdy, cdx, bdy, scratch.aDet, scratch);
+        int bLength = liftedCross(bdx, bdy, cdx, ady, adx, cdy, scratch.bDet, scratch);
+        int cLength = liftedCross(cdx, cdy, adx, bdy, bdx, ady, scratch.cDet, scratch);
+        int abLength = sum(aLength, scratch.aDet, bLength, scratch.bDet, scratch.abDet);
+        int finLength = sum(abLength, scratch.abDet, cLength, scratch.cDet, scratch.fin);
+
+        double det = approximate(finLength, scratch.fin);
+        double errorBound = IN_CIRCLE_ERROR_BOUND_B * permanent;
+        if (det >= errorBound || -det >= errorBound) {
+            return det;
+        }
+
+        double adxTail = twoDiffTail(ax, dx, adx);
+        double adyTail = twoDiffTail(ay, dy, ady);
+        double bdxTail = twoDiffTail(bx, dx, bdx);
+        double bdyTail = twoDiffTail(by, dy, bdy);
+        double cdxTail = twoDiffTail(cx, dx, cdx);
+        double cdyTail = twoDiffTail(cy, dy, cdy);
+        if (adxTail == 0.0d && bdxTail == 0.0d && cdxTail == 0.0d && adyTail == 0.0d && bdyTail == 0.0d
+                && cdyTail == 0.0d) {
+            return det;
+        }
+
+        errorBound = IN_CIRCLE_ERROR_BOUND_C * permanent + RESULT_ERROR_BOUND * Math.abs(det);
+        det += ((adx * adx + ady * ady) * ((bdx * cdyTail + cdy * bdxTail) - (bdy * cdxTail + cdx * bdyTail))
+                + 2.0d * (adx * adxTail + ady * adyTail) * (bdx * cdy - bdy * cdx))
+                + ((bdx * bdx + bdy * bdy) * ((cdx * adyTail + ady * cdxTail) - (cdy * adxTail + adx * cdyTail))
+                        + 2.0d * (bdx * bdxTail + bdy * bdyTail) * (cdx * ady - cdy * adx))
+                + ((cdx * cdx + cdy * cdy) * ((adx * bdyTail + bdy * adxTail) - (ady * bdxTail + bdx * adyTail))
+                        + 2.0d * (cdx * cdxTail + cdy * cdyTail) * (adx * bdy - ady * bdx));
+        if (det >= errorBound || -det >= errorBound) {
+            return det;
+        }
+
+        return inCircleExact(ax, ay, bx, by, cx, cy, dx, dy, scratch);
+    }
+
+    /**
+     * Computes (x * x + y * y) * (p * q - r * t) exactly for rounded inputs.
+     * Returns the length of the expansion written to h.
+     */
+    private static int liftedCross(double x, double y, double p, double q, double r, double t, double[] h,
+            Scratch scratch) {
+        crossProduct(p, q, r, t, scratch.u);
+        int xLength = scale(4, scratch.u, x, scratch.x1);
+        int xxLength = scale(xLength, scratch.x1, x, scratch.x2);
+        int yLength = scale(4, scratch.u, y, scratch.y1);
+        int yyLength = scale(yLength, scratch.y1, y, scratch.y2);
+        return sum(xxLength, scratch.x2, yyLength, scratch.y2, h);
+    }
+
+    /**
+     * Evaluates the in-circle determinant exactly. The coordinate differences
+     * are kept as two component expansions, so no rounding happens at all.
+     */
+    private static double inCircleExact(double ax, double ay, double bx, double by, double cx, double cy,
+            double dx, double dy, Scratch scratch) {
+        int adxLength = difference(ax, dx, scratch.adx);
+        int adyLength = difference(ay, dy, scratch.ady);
+        int bdxLength = difference(bx, dx, scratch.bdx);
+        int bdyLength = difference(by, dy, scratch.bdy);
+        int cdxLength = difference(cx, dx, scratch.cdx);
+        int cdyLength = difference(cy, dy, scratch.cdy);
+
+        int aLiftLength = lift(adxLength, scratch.adx, adyLength, scratch.ady, scratch.aLift, scratch);
+        int bLiftLength = lift(bdxLength, scratch.bdx, bdyLength, scratch.bdy, scratch.bLift, scratch);
+        int cLiftLength = lift(cdxLength, scratch.cdx, cdyLength, scratch.cdy, scratch.cLift, scratch);
+
+        int bcLength = cross(bdxLength, scratch.bdx, cdyLength, scratch.cdy, cdxLength, scratch.cdx, bdyLength,
+                scratch.bdy, scratch.bc, scratch);
+        int caLength = cross(cdxLength, scratch.cdx, adyLength, scratch.ady, adxLength, scratch.adx, cdyLength,
+                scratch.cdy, scratch.ca, scratch);
+        int abLength = cross(adxLength, scratch.adx, bdyLength, scratch.bdy, bdxLength, scratch.bdx, adyLength,
+                scratch.ady, scratch.ab, scratch);
+
+        int aLength = product(aLiftLength, scratch.aLift, bcLength, scratch.bc, scratch.aTerm, scratch);
+        int bLength = product(bLiftLength, scratch.bLift, caLength, scratch.ca, scratch.bTerm, scratch);
+        int cLength = product(cLiftLength, scratch.cLift, abLength, scratch.ab, scratch.cTerm, scratch);
+        int sumLength = sum(aLength, scratch.aTerm, bLength, scratch.bTerm, scratch.abTerm);
+        int exactLength = sum(sumLength, scratch.abTerm, cLength, scratch.cTerm, scratch.exact);
+        return scratch.exact[exactLength - 1];
+    }
+
+    /**
+     * Computes x * x + y * y of two expansions.
+     */
+    private static int lift(int xLength, double[] x, int yLength, double[] y, double[] h, Scratch scratch) {
+        int xxLength = product(xLength, x, xLength, x, scratch.first, scratch);
+        int yyLength = product(yLength, y, yLength, y, scratch.second, scratch);
+        return sum(xxLength, scratch.first, yyLength, scratch.second, h);
+    }
+
+    /**
+     * Computes p * q - r * t of four expansions.
+     */
+    private static int cross(int pLength, double[] p, int qLength, double[] q, int rLength, double[] r,
+            int tLength, double[] t, double[] h, Scratch scratch) {
+        int pqLength = product(pLength, p, qLength, q, scratch.first, scratch);
+        int rtLength = product(rLength, r, tLength, t, scratch.second, scratch);
+        for (int i = 0; i < rtLength; i++) {
+            scratch.second[i] = -scratch.second[i];
+        }
+        return sum(pqLength, scratch.first, rtLength, scratch.second, h);
+    }
+
+    /**
+     * Tests if the point P lies inside the circumcircle of the triangle ABC,
+     * independent of the orientation of the triangle.
+     *
+     * @return Returns true iff P lies strictly inside the circumcircle
+     */
+    public static boolean isInCircumcircle(double ax, double ay, double bx, double by, double cx, double cy,
+            double px, double py) {
+        double det = inCircle(ax, ay, bx, by, cx, cy, px, py);
+        return orientation(ax, ay, bx, by, cx, cy) > 0.0d ? det > 0.0d : det < 0.0d;
+    }
+
+    /**
+     * Tests if the point P lies strictly inside the triangle ABC. Points on
+     * the boundary of the triangle are not contained. See Real-Time Collision
+     * Detection, chap. 5, p. 206.
+     *
+     * @return Returns true iff P lies strictly inside the triangle
+     */
+    public static boolean contains(double ax, double ay, double bx, double by, double cx, double cy, double px,
+            double py) {
+        double pab = orientation(ax, ay, bx, by, px, py);
+        double pbc = orientation(bx, by, cx, cy, px, py);
+
+        if (Math.signum(pab) != Math.signum(pbc)) {
+            return false;
+        }
+
+        double pca = orientation(cx, cy, ax, ay, px, py);
+
+        return Math.signum(pab) == Math.signum(pca);
+    }
+
+    /**
+     * Tests if the point P lies inside the triangle ABC or on its boundary.
+     *
+     * @return Returns true iff P lies inside the triangle or on its boundary
+     */
+    public static boolean containsClosed(double ax, double ay, double bx, double by, double cx, double cy,
+            double px, double py) {
+        double pab = orientation(ax, ay, bx, by, px, py);
+        double pbc = orientation(bx, by, cx, cy, px, py);
+        double pca = orientation(cx, cy, ax, ay, px, py);
+
+        boolean hasNegative = pab < 0.0d || pbc < 0.0d || pca < 0.0d;
+        boolean hasPositive = pab > 0.0d || pbc > 0.0d || pca > 0.0d;
+
+        return !(hasNegative && hasPositive);
+    }
+
+    /**
+     * Computes the squared distance of the point P to the segment AB.
+     *
+     * @return Returns the squared distance of P to the segment AB
+     */
+    public static double segmentDistanceSquared(double ax, double ay, double bx, double by, double px, double py) {
+        double abx = bx - ax;
+        double aby = by - ay;
+        double length = abx * abx + aby * aby;
+        double t = length > 0.0d ? ((px - ax) * abx + (py - ay) * aby) / length : 0.0d;
+
+        if (t < 0.0d) {
+            t = 0.0d;
+        } else if (t > 1.0d) {
+            t = 1.0d;
+        }
+
+        double dx = ax + t * abx - px;
+        double dy = ay + t * aby - py;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Finds the edge of the triangle ABC nearest to the point P.
+     *
+     * @return Returns 0 if the edge AB, 1 if the edge BC and 2 if the edge CA
+     *         is nearest to P
+     */
+    public static int nearestEdge(double ax, double ay, double bx, double by, double cx, double cy, double px,
+            double py) {
+        double ab = segmentDistanceSquared(ax, ay, bx, by, px, py);
+        double bc = segmentDistanceSquared(bx, by, cx, cy, px, py);
+        double ca = segmentDistanceSquared(cx, cy, ax, ay, px, py);
+
+        if (ab <= bc && ab <= ca) {
+            return 0;
+        }
+        return bc <= ca ? 1 : 2;
+    }
+
+    /*
+     * Expansion arithmetic. An expansion is an array of nonoverlapping
+     * components sorted by increasing magnitude whose exact sum is the
+     * represented value. The methods write their result into a given array
+     * and return its length, zero components are eliminated but every
+     * expansion keeps at least one component.
+     */
+
+    /**
+     * Returns the approximate value of an expansion, the rounded sum of its
+     * components.
+     */
+    private static double approximate(int eLength, double[] e) {
+        double q = e[0];
+        for (int i = 1; i < eLength; i++) {
+            q += e[i];
+        }
+        return q;
+    }
+
+    private static double twoSumTail(double a, double b, double x) {
+        double bVirtual = x - a;
+        double aVirtual = x - bVirtual;
+        double bRoundoff = b - bVirtual;
+        double aRoundoff = a - aVirtual;
+        return aRoundoff + bRoundoff;
+    }
+
+    private static double twoDiffTail(double a, double b, double x) {
+        double bVirtual = a - x;
+        double aVirtual = x + bVirtual;
+        double bRoundoff = bVirtual - b;
+        double aRoundoff = a - aVirtual;
+        return aRoundoff + bRoundoff;
+    }
+
+    private static double twoProductTail(double a, double b, double x) {
+        double c = SPLITTER * a;
+        double aHigh = c - (c - a);
+        double aLow = a - aHigh;
+        c = SPLITTER * b;
+        double bHigh = c - (c - b);
+        double bLow = b - bHigh;
+        double error1 = x - aHigh * bHigh;
+        double error2 = error1 - aLow * bHigh;
+        double error3 = error2 - aHigh * bLow;
+        return aLow * bLow - error3;
+    }
+
+    private static int difference(double a, double b, double[] h) {
+        double x = a - b;
+        double tail = twoDiffTail(a, b, x);
+        if (tail == 0.0d) {
+            h[0] = x;
+            return 1;
+        }
+        h[0] = tail;
+        h[1] = x;
+        return 2;
+    }
+
+    /**
+     * Computes a * b - c * d exactly as four component expansion (Shewchuk's
+     * Two-Two-Diff of two products), which may contain zero components.
+     */
+    private static void crossProduct(double a, double b, double c, double d, double[] x) {
+        double s1 = a * b;
+        double s0 = twoProductTail(a, b, s1);
+        double t1 = c * d;
+        double t0 = twoProductTail(c, d, t1);
+
+        double i = s0 - t0;
+        x[0] = twoDiffTail(s0, t0, i);
+        double j = s1 + i;
+        double zero = twoSumTail(s1, i, j);
+        i = zero - t1;
+        x[1] = twoDiffTail(zero, t1, i);
+        x[3] = j + i;
+        x[2] = twoSumTail(j, i, x[3]);
+    }
+
+    /**
+     * Adds two expansions (Shewchuk's Fast-Expansion-Sum with zero
+     * elimination).
+     */
+    private static int sum(int eLength, double[] e, int fLength, double[] f, double[] h) {
+        int eIndex = 0;
+        int fIndex = 0;
+        double eNow = e[0];
+        double fNow = f[0];
+        double q;
+        if ((fNow > eNow) == (fNow > -eNow)) {
+            q = eNow;
+            eNow = ++eIndex < eLength ? e[eIndex] : 0.0d;
+        } else {
+            q = fNow;
+            fNow = ++fIndex < fLength ? f[fIndex] : 0.0d;
+        }
+
+        int hLength = 0;
+        if (eIndex < eLength && fIndex < fLength) {
+            double sum;
+            double tail;
+            if ((fNow > eNow) == (fNow > -eNow)) {
+                sum = eNow + q;
+                tail = q - (sum - eNow);
+                eNow = ++eIndex < eLength ? e[eIndex] : 0.0d;
+            } else {
+                sum = fNow + q;
+                tail = q - (sum - fNow);
+                fNow = ++fIndex < fLength ? f[fIndex] : 0.0d;
+            }
+            q = sum;
+            if (tail != 0.0d) {
+                h[hLength++] = tail;
+            }
+
+            while (eIndex < eLength && fIndex < fLength) {
+                if ((fNow > eNow) == (fNow > -eNow)) {
+                    sum = q + eNow;
+                    tail = twoSumTail(q, eNow, sum);
+                    eNow = ++eIndex < eLength ? e[eIndex] : 0.0d;
+                } else {
+                    sum = q + fNow;
+                    tail = twoSumTail(q, fNow, sum);
+                    fNow = ++fIndex < fLength ? f[fIndex] : 0.0d;
+                }
+                q = sum;
+                if (tail != 0.0d) {
+                    h[hLength++] = tail;
+                }
+            }
+        }
+
+        while (eIndex < eLength) {
+            double sum = q + eNow;
+            double tail = twoSumTail(q, eNow, sum);
+            eNow = ++eIndex < eLength ? e[eIndex] : 0.0d;
+            q = sum;
+            if (tail != 0.0d) {
+                h[hLength++] = tail;
+            }
+        }
+        while (fIndex < fLength) {
+            double sum = q + fNow;
+            double tail = twoSumTail(q, fNow, sum);
+            fNow = ++fIndex < fLength ? f[fIndex] : 0.0d;
+            q = sum;
+            if (tail != 0.0d) {
+                h[hLength++] = tail;
+            }
+        }
+
+        if (q != 0.0d || hLength == 0) {
+            h[hLength++] = q;
+        }
+        return hLength;
+    }
+
+    /**
+     * Multiplies an expansion by a scalar (Shewchuk's Scale-Expansion with
+     * zero elimination).
+     */
+    private static int scale(int eLength, double[] e, double b, double[] h) {
+        double q = e[0] * b;
+        double tail = twoProductTail(e[0], b, q);
+        int hLength = 0;
+        if (tail != 0.0d) {
+            h[hLength++] = tail;
+        }
+        for (int i = 1; i < eLength; i++) {
+            double product = e[i] * b;
+            double productTail = twoProductTail(e[i], b, product);
+            double sum = q + productTail;
+            tail = twoSumTail(q, productTail, sum);
+            if (tail != 0.0d) {
+                h[hLength++] = tail;
+            }
+            q = product + sum;
+            tail = sum - (q - product);
+            if (tail != 0.0d) {
+                h[hLength++] = tail;
+            }
+        }
+        if (q != 0.0d || hLength == 0) {
+            h[hLength++] = q;
+        }
+        return hLength;
+    }
+
+    /**
+     * Multiplies two expansions by summing the expansion scaled by every
+     * component of the other one.
+     */
+    private static int product(int eLength, double[] e, int fLength, double[] f, double[] h, Scratch scratch) {
+        int hLength = scale(eLength, e, f[0], h);
+        for (int i = 1; i < fLength; i++) {
+            int scaledLength = scale(eLength, e, f[i], scratch.scaled);
+            int sumLength = sum(hLength, h, scaledLength, scratch.scaled, scratch.accumulator);
+            System.arraycopy(scratch.accumulator, 0, h, 0, sumLength);
+            hLength = sumLength;
+        }
+        return hLength;
+    }
+
+    /**
+     * The expansions of the adaptive stages, sized for the longest expansion
+     * each of them can hold and reused by all predicates of a thread.
+     */
+    private static final class Scratch {
+
+        final double[] b = new double[4];
+        final double[] u = new double[4];
+        final double[] c1 = new double[8];
+        final double[] c2 = new double[12];
+        final double[] d = new double[16];
+
+        final double[] x1 = new double[8];
+        final double[] x2 = new double[16];
+        final double[] y1 = new double[8];
+        final double[] y2 = new double[16];
+        final double[] aDet = new double[32];
+        final double[] bDet = new double[32];
+        final double[] cDet = new double[32];
+        final double[] abDet = new double[64];
+        final double[] fin = new double[96];
+
+        final double[] adx = new double[2];
+        final double[] ady = new double[2];
+        final double[] bdx = new double[2];
+        final double[] bdy = new double[2];
+        final double[] cdx = new double[2];
+        final double[] cdy = new double[2];
+        final double[] aLift = new double[16];
+        final double[] bLift = new double[16];
+        final double[] cLift = new double[16];
+        final double[] bc = new double[16];
+        final double[] ca = new double[16];
+        final double[] ab = new double[16];
+        final double[] first = new double[8];
+        final double[] second = new double[8];
+        final double[] aTerm = new double[512];
+        final double[] bTerm = new double[512];
+        final double[] cTerm = new double[512];
+        final double[] abTerm = new double[1024];
+        final double[] exact = new double[1536];
+        final double[] scaled = new double[32];
+        final double[] accumulator = new double[512];
+
+    }
+
+}
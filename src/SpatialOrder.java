@@ -0,0 +1,179 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Computes spatially coherent insertion orders for point sets. Points that are
+ * inserted one after the other lie close to each other, so the point location
+ * walk of the triangulator only takes a few steps per point.
+ */
+public final class SpatialOrder {
+
+    /**
+     * Bits per axis of the Hilbert curve. Two axes and the point index have
+     * to fit into one positive long.
+     */
+    private static final int HILBERT_BITS = 15;
+
+    /**
+     * Size of the first randomized round. Smaller rounds are not worth sorting.
+     */
+    private static final int MIN_ROUND_SIZE = 64;
+
+    /**
+     * Point sets of at least this size compute their curve keys in parallel.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 15;
+
+    private SpatialOrder() {
+    }
+
+    /**
+     * Computes a biased randomized insertion order (BRIO). The points are
+     * randomly permuted and split into rounds of doubling size, the last round
+     * holding about half of the points. Within every round the points are
+     * sorted along a Hilbert curve. The randomization keeps the expected
+     * running time of the incremental algorithm, while the curve order keeps
+     * consecutive points close together.
+     *
+     * @param pointSet
+     *            The point set
+     * @param random
+     *            The source of randomness, use a seeded instance for
+     *            reproducible orders
+     * @return Returns a permutation of the point set indices, suitable for
+     *         {@link DelaunayTriangulator#shuffle(int[])}
+     */
+    public static int[] brio(List<Point> pointSet, Random random) {
+        int size = pointSet.size();
+        int[] permutation = new int[size];
+        for (int i = 0; i < size; i++) {
+            permutation[i] = i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = swap;
+        }
+
+        long[] keys = hilbertKeys(pointSet, permutation);
+
+        int end = size;
+        while (end > 0) {
+            int start = end / 2 < MIN_ROUND_SIZE ? 0 : end / 2;
+            if (end - start >= PARALLEL_THRESHOLD) {
+                Arrays.parallelSort(keys, start, end);
+            } else {
+                Arrays.sort(keys, start, end);
+            }
+            end = start;
+        }
+
+        for (int i = 0; i < size; i++) {
+            permutation[i] = (int) keys[i];
+        }
+        return permutation;
+    }
+
+    /**
+     * Computes the order of the point set along a Hilbert curve without any
+     * randomization.
+     *
+     * @param pointSet
+     *            The point set
+     * @return Returns a permutation of the point set indices
+     */
+    public static int[] hilbert(List<Point> pointSet) {
+        int size = pointSet.size();
+        int[] permutation = new int[size];
+        for (int i = 0; i < size; i++) {
+            permutation[i] = i;
+        }
+
+        long[] keys = hilbertKeys(pointSet, permutation);
+        if (size >= PARALLEL_THRESHOLD) {
+            Arrays.parallelSort(keys);
+        } else {
+            Arrays.sort(keys);
+        }
+
+        for (int i = 0; i < size; i++) {
+            permutation[i] = (int) keys[i];
+        }
+        return permutation;
+    }
+
+    /**
+     * Computes for every entry of the permutation a sort key holding the
+     * Hilbert index of the point in the upper and the point index in the lower
+     * 32 bits.
+     */
+    private static long[] hilbertKeys(final List<Point> pointSet, final int[] permutation) {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+
+        for (Point point : pointSet) {
+            minX = Math.min(minX, point.x);
+            minY = Math.min(minY, point.y);
+            maxX = Math.max(maxX, point.x);
+            maxY = Math.max(maxY, point.y);
+        }
+
+        final double originX = minX;
+        final double originY = minY;
+        double extent = Math.max(maxX - minX, maxY - minY);
+        final double scale = extent > 0.0d ? ((1 << HILBERT_BITS) - 1) / extent : 0.0d;
+        final long[] keys = new long[permutation.length];
+
+        IntStream indices = IntStream.range(0, permutation.length);
+        if (permutation.length >= PARALLEL_THRESHOLD) {
+            indices = indices.parallel();
+        }
+        indices.forEach(i -> {
+            Point point = pointSet.get(permutation[i]);
+            int x = (int) ((point.x - originX) * scale);
+            int y = (int) ((point.y - originY) * scale);
+            keys[i] = (hilbertIndex(x, y) << 32) | permutation[i];
+        });
+
+        return keys;
+    }
+
+    /**
+     * Computes the distance of the grid cell (x, y) along the Hilbert curve
+     * filling the grid of 2^15 x 2^15 cells.
+     *
+     * @param x
+     *            The column of the cell
+     * @param y
+     *            The row of the cell
+     * @return Returns the Hilbert index of the cell
+     */
+    public static long hilbertIndex(int x, int y) {
+        int mask = (1 << HILBERT_BITS) - 1;
+        long index = 0;
+
+        for (int s = 1 << (HILBERT_BITS - 1); s > 0; s >>= 1) {
+            int rx = (x & s) != 0 ? 1 : 0;
+            int ry = (y & s) != 0 ? 1 : 0;
+            index += (long) s * s * ((3 * rx) ^ ry);
+
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = mask - x;
+                    y = mask - y;
+                }
+                int swap = x;
+                x = y;
+                y = swap;
+            }
+        }
+
+        return index;
+    }
+
+}
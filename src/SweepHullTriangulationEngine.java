@@ -0,0 +1,674 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A Java implementation of the radial sweep hull Delaunay triangulation
+ * algorithm. A seed triangle with a small circumcircle is picked near the
+ * centre of the point set, the remaining points are sorted by their distance
+ * to its circumcentre and added in that order. Every new point lies outside
+ * of the current convex hull and is connected to the hull edges it sees, the
+ * new edges are legalized by flipping. Triangles and half edges are kept in
+ * primitive arrays, the triangle soup is only built once at the end.
+ */
+public class SweepHullTriangulationEngine implements TriangulationEngine {
+
+    private static final int NONE = -1;
+
+    private int pointCount;
+    private double[] x;
+    private double[] y;
+
+    private int[] triangles;
+    private int[] halfedges;
+    private int triangleCount;
+
+    private int[] hullNext;
+    private int[] hullPrev;
+    private int[] hullTri;
+    private int[] hullHash;
+    private double centerX;
+    private double centerY;
+
+    private int[] edgeStack = new int[64];
+
+    private TriangulationStatistics statistics;
+    private long flips;
+    private long hullSteps;
+    private long insideInsertions;
+
+    @Override
+    public TriangleSoup triangulate(List<Point> pointSet) throws NotEnoughPointsException {
+        IndexedMesh mesh = triangulateIndexed(pointSet);
+        long start = System.nanoTime();
+        TriangleSoup triangleSoup = mesh.toTriangleSoup(pointSet);
+        if (statistics != null) {
+            statistics.addTime(TriangulationStatistics.Phase.CLEANUP, System.nanoTime() - start);
+        }
+        return triangleSoup;
+    }
+
+    /**
+     * This method generates a Delaunay triangulation from the specified point
+     * set and returns the arrays of the sweep as indexed mesh, no triangle
+     * objects are created. The index of a vertex in the mesh is the index of
+     * the point in the point set.
+     * 
+     * @param pointSet
+     *            The point set to be triangulated
+     * @return Returns the triangulation as indexed mesh
+     * @throws NotEnoughPointsException
+     *             Thrown when the point set contains less than three distinct
+     *             points
+     */
+    @Override
+    public IndexedMesh triangulateIndexed(List<Point> pointSet) throws NotEnoughPointsException {
+        if (pointSet == null || pointSet.size() < 3) {
+            throw new NotEnoughPointsException("Less than three points in point set.");
+        }
+
+        try {
+            return sweep(pointSet);
+        } finally {
+            x = null;
+            y = null;
+            triangles = null;
+            halfedges = null;
+            hullNext = null;
+            hullPrev = null;
+            hullTri = null;
+            hullHash = null;
+        }
+    }
+
+    /**
+     * Sets the statistics the triangulations of this engine are counted in.
+     * The radial sort is timed as ordering, the sweep as insertion and the
+     * output as cleanup. Steps of the walks along the hull count as point
+     * location steps.
+     * 
+     * @param statistics
+     *            The statistics, null to stop counting
+     */
+    @Override
+    public void setStatistics(TriangulationStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * Computes the triangulation and writes it into an indexed mesh whose
+     * vertex indices are the indices of the point set.
+     */
+    private IndexedMesh sweep(List<Point> pointSet) throws NotEnoughPointsException {
+        long start = System.nanoTime();
+        flips = 0L;
+        hullSteps = 0L;
+        insideInsertions = 0L;
+        pointCount = pointSet.size();
+        x = new double[pointCount];
+        y = new double[pointCount];
+        double[] z = new double[pointCount];
+
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+
+        for (int i = 0; i < pointCount; i++) {
+            Point point = pointSet.get(i);
+            x[i] = point.x;
+            y[i] = point.y;
+            z[i] = point.z;
+            minX = Math.min(minX, point.x);
+            minY = Math.min(minY, point.y);
+            maxX = Math.max(maxX, point.x);
+            maxY = Math.max(maxY, point.y);
+        }
+
+        /**
+         * The seed triangle is made of the point closest to the centre of the
+         * bounding box, the point closest to that one and the point forming
+         * the smallest circumcircle with both.
+         */
+        double boxCenterX = (minX + maxX) / 2.0d;
+        double boxCenterY = (minY + maxY) / 2.0d;
+
+        int i0 = NONE;
+        double minDistance = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < pointCount; i++) {
+            double distance = distanceSquared(boxCenterX, boxCenterY, x[i], y[i]);
+            if (distance < minDistance) {
+                i0 = i;
+                minDistance = distance;
+            }
+        }
+
+        int i1 = NONE;
+        minDistance = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < pointCount; i++) {
+            double distance = distanceSquared(x[i0], y[i0], x[i], y[i]);
+            if (distance > 0.0d && distance < minDistance) {
+                i1 = i;
+                minDistance = distance;
+            }
+        }
+
+        if (i1 == NONE) {
+            throw new NotEnoughPointsException("Less than three distinct points in point set.");
+        }
+
+        int i2 = NONE;
+        double minRadius = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < pointCount; i++) {
+            if (Predicates.orientation(x[i0], y[i0], x[i1], y[i1], x[i], y[i]) == 0.0d) {
+                continue;
+            }
+            double radius = circumradiusSquared(i0, i1, i);
+            if (radius < minRadius) {
+                i2 = i;
+                minRadius = radius;
+            }
+        }
+
+        if (i2 == NONE) {
+            for (int i = 0; i < pointCount; i++) {
+                if ((x[i] != x[i0] || y[i] != y[i0]) && (x[i] != x[i1] || y[i] != y[i1])) {
+                    /**
+                     * All points lie on a line, which has no triangulation.
+                     */
+                    return new IndexedMesh(pointCount, x, y, z, 0, new int[0], new int[0]);
+                }
+            }
+            throw new NotEnoughPointsException("Less than three distinct points in point set.");
+        }
+
+        if (Predicates.orientation(x[i0], y[i0], x[i1], y[i1], x[i2], y[i2]) < 0.0d) {
+            int swap = i1;
+            i1 = i2;
+            i2 = swap;
+        }
+
+        computeCircumcenter(i0, i1, i2);
+
+        int[] ids = new int[pointCount];
+        double[] distances = new double[pointCount];
+        for (int i = 0; i < pointCount; i++) {
+            ids[i] = i;
+            distances[i] = distanceSquared(centerX, centerY, x[i], y[i]);
+        }
+        quicksort(ids, distances, 0, pointCount - 1);
+        long sorted = System.nanoTime();
+
+        int maxTriangles = Math.max(2 * pointCount - 5, 1);
+        triangles = new int[3 * maxTriangles];
+        halfedges = new int[3 * maxTriangles];
+        triangleCount = 0;
+
+        hullNext = new int[pointCount];
+        hullPrev = new int[pointCount];
+        hullTri = new int[pointCount];
+        hullHash = new int[Math.max((int) Math.ceil(Math.sqrt(pointCount)), 1)];
+        Arrays.fill(hullHash, NONE);
+
+        /**
+         * The hull is a counterclockwise ring of vertices. For every hull
+         * vertex v the half edge from v to its successor is stored in hullTri.
+         */
+        hullNext[i0] = i1;
+        hullNext[i1] = i2;
+        hullNext[i2] = i0;
+        hullPrev[i0] = i2;
+        hullPrev[i1] = i0;
+        hullPrev[i2] = i1;
+        hash(i0);
+        hash(i1);
+        hash(i2);
+
+        addTriangle(i0, i1, i2, NONE, NONE, NONE);
+
+        double previousX = Double.NaN;
+        double previousY = Double.NaN;
+
+        for (int k = 0; k < pointCount; k++) {
+            int i = ids[k];
+            double px = x[i];
+            double py = y[i];
+
+            if ((px == previousX && py == previousY) || i == i0 || i == i1 || i == i2) {
+                continue;
+            }
+            previousX = px;
+            previousY = py;
+
+            int e = findVisibleEdge(i);
+
+            if (e == NONE) {
+                /**
+                 * The point does not see any hull edge. Either it coincides
+                 * with a vertex that has already been added or rounding in
+                 * the distance order placed it inside the hull, in which case
+                 * it is inserted like in the incremental algorithm.
+                 */
+                insertInside(i);
+                continue;
+            }
+
+            int t = addTriangle(e, i, hullNext[e], NONE, NONE, hullTri[e]);
+            legalize(t + 2);
+
+            int n = hullNext[e];
+            int q = hullNext[n];
+            while (Predicates.orientation(x[n], y[n], x[q], y[q], px, py) < 0.0d) {
+                t = addTriangle(n, i, q, hullTri[i], NONE, hullTri[n]);
+                legalize(t + 2);
+                hullNext[n] = n;
+                n = q;
+                q = hullNext[n];
+            }
+
+            q = hullPrev[e];
+            while (Predicates.orientation(x[q], y[q], x[e], y[e], px, py) < 0.0d) {
+                t = addTriangle(q, i, e, NONE, hullTri[e], hullTri[q]);
+                legalize(t + 2);
+                hullNext[e] = e;
+                e = q;
+                q = hullPrev[e];
+            }
+
+            hullPrev[i] = e;
+            hullNext[e] = i;
+            hullPrev[n] = i;
+            hullNext[i] = n;
+
+            hash(i);
+            hash(e);
+        }
+
+        long swept = System.nanoTime();
+
+        int[] neighbours = new int[3 * triangleCount];
+        for (int h = 0; h < 3 * triangleCount; h++) {
+            int opposite = halfedges[h - h % 3 + (h + 1) % 3];
+            neighbours[h] = opposite == NONE ? IndexedMesh.NO_NEIGHBOUR : opposite / 3;
+        }
+
+        if (statistics != null) {
+            /**
+             * The walks along the hull locate the new points, points that
+             * had to be searched inside of the hull count as fallbacks.
+             */
+            statistics.addTime(TriangulationStatistics.Phase.ORDERING, sorted - start);
+            statistics.addTime(TriangulationStatistics.Phase.INSERTION, swept - sorted);
+            statistics.addTime(TriangulationStatistics.Phase.CLEANUP, System.nanoTime() - swept);
+            statistics.locationSteps += hullSteps;
+            statistics.locationFallbacks += insideInsertions;
+            statistics.flips += flips;
+            statistics.trianglesCreated += triangleCount;
+            statistics.triangulations++;
+        }
+
+        return new IndexedMesh(pointCount, x, y, z, triangleCount, triangles, neighbours);
+    }
+
+    /**
+     * Returns a hull vertex whose outgoing hull edge is seen by the point, or
+     * -1 if the point does not see any hull edge. The search starts at the hull
+     * vertex hashed next to the angle of the point around the centre.
+     */
+    private int findVisibleEdge(int i) {
+        int key = hashKey(x[i], y[i]);
+        int start = NONE;
+        for (int j = 0; j < hullHash.length; j++) {
+            start = hullHash[(key + j) % hullHash.length];
+            if (start != NONE && start != hullNext[start]) {
+                break;
+            }
+        }
+
+        start = hullPrev[start];
+        int e = start;
+        int q = hullNext[e];
+        while (Predicates.orientation(x[e], y[e], x[q], y[q], x[i], y[i]) >= 0.0d) {
+            hullSteps++;
+            e = q;
+            if (e == start) {
+                return NONE;
+            }
+            q = hullNext[e];
+        }
+        return e;
+    }
+
+    /**
+     * Inserts a point lying inside of the hull by splitting the triangle or
+     * edge it lies on. Points coinciding with a vertex are skipped.
+     */
+    private void insertInside(int i) {
+        insideInsertions++;
+        double px = x[i];
+        double py = y[i];
+
+        for (int t = 0; t < triangleCount; t++) {
+            int h = 3 * t;
+            int a = triangles[h];
+            int b = triangles[h + 1];
+            int c = triangles[h + 2];
+
+            double ab = Predicates.orientation(x[a], y[a], x[b], y[b], px, py);
+            double bc = Predicates.orientation(x[b], y[b], x[c], y[c], px, py);
+            double ca = Predicates.orientation(x[c], y[c], x[a], y[a], px, py);
+
+            if (ab < 0.0d || bc < 0.0d || ca < 0.0d) {
+                continue;
+            }
+
+            if ((px == x[a] && py == y[a]) || (px == x[b] && py == y[b]) || (px == x[c] && py == y[c])) {
+                return;
+            }
+
+            if (ab == 0.0d) {
+                splitEdge(h, i);
+            } else if (bc == 0.0d) {
+                splitEdge(h + 1, i);
+            } else if (ca == 0.0d) {
+                splitEdge(h + 2, i);
+            } else {
+                splitTriangle(t, i);
+            }
+            return;
+        }
+    }
+
+    /**
+     * Splits the triangle t into three triangles sharing the vertex i.
+     */
+    private void splitTriangle(int t, int i) {
+        int h = 3 * t;
+        int a = triangles[h];
+        int b = triangles[h + 1];
+        int c = triangles[h + 2];
+        int twinAB = halfedges[h];
+        int twinBC = halfedges[h + 1];
+        int twinCA = halfedges[h + 2];
+
+        setTriangle(h, a, b, i);
+        int u = newTriangle(b, c, i);
+        int w = newTriangle(c, a, i);
+
+        link(h, twinAB);
+        link(u, twinBC);
+        link(w, twinCA);
+        link(h + 1, u + 2);
+        link(u + 1, w + 2);
+        link(w + 1, h + 2);
+
+        legalize(h);
+        legalize(u);
+        legalize(w);
+    }
+
+    /**
+     * Splits the half edge h and, if present, its twin at the vertex i.
+     */
+    private void splitEdge(int h, int i) {
+        int t = h - h % 3;
+        int hNext = t + (h + 1) % 3;
+        int hPrev = t + (h + 2) % 3;
+        int a = triangles[h];
+        int b = triangles[hNext];
+        int c = triangles[hPrev];
+        int twinBC = halfedges[hNext];
+        int twinCA = halfedges[hPrev];
+        int g = halfedges[h];
+
+        setTriangle(t, a, i, c);
+        int u = newTriangle(i, b, c);
+        link(t + 1, u + 2);
+        link(t + 2, twinCA);
+        link(u + 1, twinBC);
+
+        if (g == NONE) {
+            link(t, NONE);
+            link(u, NONE);
+            hullNext[a] = i;
+            hullPrev[i] = a;
+            hullNext[i] = b;
+            hullPrev[b] = i;
+            hash(i);
+
+            legalize(t + 2);
+            legalize(u + 1);
+            return;
+        }
+
+        int s = g - g % 3;
+        int gNext = s + (g + 1) % 3;
+        int gPrev = s + (g + 2) % 3;
+        int d = triangles[gPrev];
+        int twinAD = halfedges[gNext];
+        int twinDB = halfedges[gPrev];
+
+        setTriangle(s, b, i, d);
+        int v = newTriangle(i, a, d);
+        link(s, u);
+        link(t, v);
+        link(s + 1, v + 2);
+        link(s + 2, twinDB);
+        link(v + 1, twinAD);
+
+        legalize(t + 2);
+        legalize(u + 1);
+        legalize(s + 2);
+        legalize(v + 1);
+    }
+
+    /**
+     * Restores the Delaunay property around the half edge a by flipping
+     * illegal edges. The edges that have to be checked after a flip are kept
+     * on a stack instead of recursing.
+     */
+    private void legalize(int a) {
+        int stackSize = 0;
+
+        while (true) {
+            int b = halfedges[a];
+            int a0 = a - a % 3;
+            int ar = a0 + (a + 2) % 3;
+
+            if (b == NONE) {
+                if (stackSize == 0) {
+                    return;
+                }
+                a = edgeStack[--stackSize];
+                continue;
+            }
+
+            int b0 = b - b % 3;
+            int al = a0 + (a + 1) % 3;
+            int bl = b0 + (b + 2) % 3;
+
+            int p0 = triangles[ar];
+            int pr = triangles[a];
+            int pl = triangles[al];
+            int p1 = triangles[bl];
+
+            if (Predicates.inCircle(x[p0], y[p0], x[pr], y[pr], x[pl], y[pl], x[p1], y[p1]) > 0.0d) {
+                triangles[a] = p1;
+                triangles[b] = p0;
+
+                int hbl = halfedges[bl];
+                link(a, hbl);
+                link(b, halfedges[ar]);
+                link(ar, bl);
+
+                if (stackSize == edgeStack.length) {
+                    edgeStack = Arrays.copyOf(edgeStack, 2 * stackSize);
+                }
+                edgeStack[stackSize++] = b0 + (b + 1) % 3;
+                flips++;
+            } else {
+                if (stackSize == 0) {
+                    return;
+                }
+                a = edgeStack[--stackSize];
+            }
+        }
+    }
+
+    /**
+     * Adds the triangle (i0, i1, i2) and links its half edges to the given
+     * twins. Returns the index of the first half edge of the triangle.
+     */
+    private int addTriangle(int i0, int i1, int i2, int a, int b, int c) {
+        int t = newTriangle(i0, i1, i2);
+        link(t, a);
+        link(t + 1, b);
+        link(t + 2, c);
+        return t;
+    }
+
+    private int newTriangle(int i0, int i1, int i2) {
+        if (3 * triangleCount == triangles.length) {
+            triangles = Arrays.copyOf(triangles, 2 * triangles.length);
+            halfedges = Arrays.copyOf(halfedges, 2 * halfedges.length);
+        }
+        int t = 3 * triangleCount++;
+        setTriangle(t, i0, i1, i2);
+        return t;
+    }
+
+    private void setTriangle(int t, int i0, int i1, int i2) {
+        triangles[t] = i0;
+        triangles[t + 1] = i1;
+        triangles[t + 2] = i2;
+    }
+
+    /**
+     * Makes the half edges a and b twins. A half edge without twin lies on the
+     * hull and is recorded as the hull edge leaving its origin.
+     */
+    private void link(int a, int b) {
+        halfedges[a] = b;
+        if (b != NONE) {
+            halfedges[b] = a;
+        } else {
+            hullTri[triangles[a]] = a;
+        }
+    }
+
+    private void hash(int i) {
+        hullHash[hashKey(x[i], y[i])] = i;
+    }
+
+    /**
+     * Maps the angle of the point around the centre monotonically to a slot
+     * of the hull hash.
+     */
+    private int hashKey(double px, double py) {
+        double dx = px - centerX;
+        double dy = py - centerY;
+        double sum = Math.abs(dx) + Math.abs(dy);
+        double p = sum > 0.0d ? dx / sum : 0.0d;
+        double angle = (dy > 0.0d ? 3.0d - p : 1.0d + p) / 4.0d;
+        return (int) Math.floor(angle * hullHash.length) % hullHash.length;
+    }
+
+    private double circumradiusSquared(int a, int b, int c) {
+        double dx = x[b] - x[a];
+        double dy = y[b] - y[a];
+        double ex = x[c] - x[a];
+        double ey = y[c] - y[a];
+
+        double bl = dx * dx + dy * dy;
+        double cl = ex * ex + ey * ey;
+        double d = 0.5d / (dx * ey - dy * ex);
+
+        double ox = (ey * bl - dy * cl) * d;
+        double oy = (dx * cl - ex * bl) * d;
+        double radius = ox * ox + oy * oy;
+        return Double.isNaN(radius) ? Double.POSITIVE_INFINITY : radius;
+    }
+
+    private void computeCircumcenter(int a, int b, int c) {
+        double dx = x[b] - x[a];
+        double dy = y[b] - y[a];
+        double ex = x[c] - x[a];
+        double ey = y[c] - y[a];
+
+        double bl = dx * dx + dy * dy;
+        double cl = ex * ex + ey * ey;
+        double d = 0.5d / (dx * ey - dy * ex);
+
+        centerX = x[a] + (ey * bl - dy * cl) * d;
+        centerY = y[a] + (dx * cl - ex * bl) * d;
+    }
+
+    private static double distanceSquared(double ax, double ay, double bx, double by) {
+        double dx = ax - bx;
+        double dy = ay - by;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Sorts the ids in the range [left, right] by their distances.
+     */
+    private static void quicksort(int[] ids, double[] distances, int left, int right) {
+        while (right - left > 20) {
+            int median = (left + right) >>> 1;
+            int i = left + 1;
+            int j = right;
+            swap(ids, median, i);
+            if (distances[ids[left]] > distances[ids[right]]) {
+                swap(ids, left, right);
+            }
+            if (distances[ids[i]] > distances[ids[right]]) {
+                swap(ids, i, right);
+            }
+            if (distances[ids[left]] > distances[ids[i]]) {
+                swap(ids, left, i);
+            }
+
+            int pivot = ids[i];
+            double pivotDistance = distances[pivot];
+            while (true) {
+                do {
+                    i++;
+                } while (distances[ids[i]] < pivotDistance);
+                do {
+                    j--;
+                } while (distances[ids[j]] > pivotDistance);
+                if (j < i) {
+                    break;
+                }
+                swap(ids, i, j);
+            }
+            ids[left + 1] = ids[j];
+            ids[j] = pivot;
+
+            if (right - i + 1 >= j - left) {
+                quicksort(ids, distances, i, right);
+                right = j - 1;
+            } else {
+                quicksort(ids, distances, left, j - 1);
+                left = i;
+            }
+        }
+
+        for (int i = left + 1; i <= right; i++) {
+            int id = ids[i];
+            double distance = distances[id];
+            int j = i - 1;
+            while (j >= left && distances[ids[j]] > distance) {
+                ids[j + 1] = ids[j];
+                j--;
+            }
+            ids[j + 1] = id;
+        }
+    }
+
+    private static void swap(int[] ids, int i, int j) {
+        int swap = ids[i];
+        ids[i] = ids[j];
+        ids[j] = swap;
+    }
+
+}
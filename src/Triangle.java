@@ -1,5 +1,3 @@
-import java.util.Arrays;
-
 /**
  * 2D triangle class implementation.
  */
@@ -17,6 +15,8 @@ public class Triangle {
     
     public boolean isVisited;
 
+    int soupIndex = -1;
+
     /**
      * Constructor of the 2D triangle class used to create a new triangle
      * instance from three 2D vectors describing the triangle's vertices.
@@ -44,47 +44,19 @@ public class Triangle {
      * @return Returns true iff the point lies inside this 2D triangle
      */
     public boolean contains(Point point) {
-        double pab = point.sub(a).cross(b.sub(a));
-        double pbc = point.sub(b).cross(c.sub(b));
-
-        if (!hasSameSign(pab, pbc)) {
-            return false;
-        }
-
-        double pca = point.sub(c).cross(a.sub(c));
-
-        if (!hasSameSign(pab, pca)) {
-            return false;
-        }
-
-        return true;
+        return Predicates.contains(a.x, a.y, b.x, b.y, c.x, c.y, point.x, point.y);
     }
-    
 
+    /**
+     * Tests if a 2D point lies inside this 2D triangle or on its boundary.
+     * 
+     * @param point
+     *            The point to be tested
+     * @return Returns true iff the point lies inside this 2D triangle or on
+     *         one of its edges
+     */
     public boolean containsNew(Point point) {
-        double pab = point.sub(a).cross(b.sub(a));
-        double pbc = point.sub(b).cross(c.sub(b));
-        double pca = point.sub(c).cross(a.sub(c));
-        
-        if (pab == 0 && pca * pbc >= 0) {
-        	return true;
-        }        
-        if (pbc == 0 && pca * pab >= 0) {
-        	return true;
-        }        
-        if (pca == 0 && pab * pbc >= 0) {
-        	return true;
-        }
-        
-        if (!hasSameSign(pab, pbc)) {
-            return false;
-        }
-
-        if (!hasSameSign(pab, pca)) {
-            return false;
-        }
-
-        return true;
+        return Predicates.containsClosed(a.x, a.y, b.x, b.y, c.x, c.y, point.x, point.y);
     }
 
     /**
@@ -102,26 +74,7 @@ public class Triangle {
      *         the three points a, b, and c of the triangle
      */
     public boolean isPointInCircumcircle(Point point) {
-        double a11 = a.x - point.x;
-        double a21 = b.x - point.x;
-        double a31 = c.x - point.x;
-
-        double a12 = a.y - point.y;
-        double a22 = b.y - point.y;
-        double a32 = c.y - point.y;
-
-        double a13 = (a.x - point.x) * (a.x - point.x) + (a.y - point.y) * (a.y - point.y);
-        double a23 = (b.x - point.x) * (b.x - point.x) + (b.y - point.y) * (b.y - point.y);
-        double a33 = (c.x - point.x) * (c.x - point.x) + (c.y - point.y) * (c.y - point.y);
-
-        double det = a11 * a22 * a33 + a12 * a23 * a31 + a13 * a21 * a32 - a13 * a22 * a31 - a12 * a21 * a33
-                - a11 * a23 * a32;
-
-        if (isOrientedCCW()) {
-            return det > 0.0d;
-        }
-
-        return det < 0.0d;
+        return Predicates.isInCircumcircle(a.x, a.y, b.x, b.y, c.x, c.y, point.x, point.y);
     }
 
     /**
@@ -136,15 +89,7 @@ public class Triangle {
      *         (CCW)
      */
     public boolean isOrientedCCW() {
-        double a11 = a.x - c.x;
-        double a21 = b.x - c.x;
-
-        double a12 = a.y - c.y;
-        double a22 = b.y - c.y;
-
-        double det = a11 * a22 - a12 * a21;
-
-        return det > 0.0d;
+        return Predicates.orientation(a.x, a.y, b.x, b.y, c.x, c.y) > 0.0d;
     }
 
     /**
@@ -166,11 +111,25 @@ public class Triangle {
      * @return The vertex of this triangle that is not part of the edge
      */
     public Point getNoneEdgeVertex(Edge edge) {
-        if (a != edge.a && a != edge.b) {
+        return getNoneEdgeVertex(edge.a, edge.b);
+    }
+
+    /**
+     * Returns the vertex of this triangle that is not part of the edge between
+     * the two given points.
+     * 
+     * @param firstPoint
+     *            The first vertex of the edge
+     * @param secondPoint
+     *            The second vertex of the edge
+     * @return The vertex of this triangle that is not part of the edge
+     */
+    public Point getNoneEdgeVertex(Point firstPoint, Point secondPoint) {
+        if (a != firstPoint && a != secondPoint) {
             return a;
-        } else if (b != edge.a && b != edge.b) {
+        } else if (b != firstPoint && b != secondPoint) {
             return b;
-        } else if (c != edge.a && c != edge.b) {
+        } else if (c != firstPoint && c != secondPoint) {
             return c;
         }
 
@@ -194,6 +153,42 @@ public class Triangle {
         return false;
     }
 
+    /**
+     * Returns true if one of the vertices of this triangle has the same 2D
+     * coordinates as the given point.
+     * 
+     * @param point
+     *            The point to be tested
+     * @return Returns true if the point coincides with a vertex
+     */
+    public boolean hasVertexAt(Point point) {
+        return (a.x == point.x && a.y == point.y) || (b.x == point.x && b.y == point.y)
+                || (c.x == point.x && c.y == point.y);
+    }
+
+    /**
+     * Returns the edge of this triangle the specified point lies on. The
+     * point is expected to lie inside this triangle or on its boundary, and
+     * the test is exact.
+     * 
+     * @param point
+     *            The point
+     * @return Returns the edge containing the point or null if the point lies
+     *         strictly inside this triangle
+     */
+    public Edge findEdgeContaining(Point point) {
+        if (Predicates.orientation(a.x, a.y, b.x, b.y, point.x, point.y) == 0.0d) {
+            return new Edge(a, b);
+        }
+        if (Predicates.orientation(b.x, b.y, c.x, c.y, point.x, point.y) == 0.0d) {
+            return new Edge(b, c);
+        }
+        if (Predicates.orientation(c.x, c.y, a.x, a.y, point.x, point.y) == 0.0d) {
+            return new Edge(c, a);
+        }
+        return null;
+    }
+
     /**
      * Returns an EdgeDistancePack containing the edge and its distance nearest
      * to the specified point.
@@ -203,17 +198,18 @@ public class Triangle {
      * @return The edge of this triangle that is nearest to the specified point
      */
     public EdgeDistancePack findNearestEdge(Point point) {
-        EdgeDistancePack[] edges = new EdgeDistancePack[3];
-
-        edges[0] = new EdgeDistancePack(new Edge(a, b),
-                computeClosestPoint(new Edge(a, b), point).sub(point).mag());
-        edges[1] = new EdgeDistancePack(new Edge(b, c),
-                computeClosestPoint(new Edge(b, c), point).sub(point).mag());
-        edges[2] = new EdgeDistancePack(new Edge(c, a),
-                computeClosestPoint(new Edge(c, a), point).sub(point).mag());
+        switch (Predicates.nearestEdge(a.x, a.y, b.x, b.y, c.x, c.y, point.x, point.y)) {
+        case 0:
+            return new EdgeDistancePack(new Edge(a, b), edgeDistance(a, b, point));
+        case 1:
+            return new EdgeDistancePack(new Edge(b, c), edgeDistance(b, c, point));
+        default:
+            return new EdgeDistancePack(new Edge(c, a), edgeDistance(c, a, point));
+        }
+    }
 
-        Arrays.sort(edges);
-        return edges[0];
+    private double edgeDistance(Point edgeA, Point edgeB, Point point) {
+        return Math.sqrt(Predicates.segmentDistanceSquared(edgeA.x, edgeA.y, edgeB.x, edgeB.y, point.x, point.y));
     }
     
     public void setNeighbour(Point firstPoint, Point secondPoint, Triangle neighbour) {
@@ -253,42 +249,6 @@ public class Triangle {
 		return a.z - (normal.x * (x - a.x) + normal.y * (y - a.y)) / normal.z;
     }
 
-    /**
-     * Computes the closest point on the given edge to the specified point.
-     * 
-     * @param edge
-     *            The edge on which we search the closest point to the specified
-     *            point
-     * @param point
-     *            The point to which we search the closest point on the edge
-     * @return The closest point on the given edge to the specified point
-     */
-    private Point computeClosestPoint(Edge edge, Point point) {
-        Point ab = edge.b.sub(edge.a);
-        double t = point.sub(edge.a).dot(ab) / ab.dot(ab);
-
-        if (t < 0.0d) {
-            t = 0.0d;
-        } else if (t > 1.0d) {
-            t = 1.0d;
-        }
-
-        return edge.a.add(ab.mult(t));
-    }
-
-    /**
-     * Tests if the two arguments have the same sign.
-     * 
-     * @param a
-     *            The first floating point argument
-     * @param b
-     *            The second floating point argument
-     * @return Returns true iff both arguments have the same sign
-     */
-    private boolean hasSameSign(double a, double b) {
-        return Math.signum(a) == Math.signum(b);
-    }
-    
     private boolean hasSameSignNew(double a, double b) {
     	if (a == 0 || b == 0) {
     		return true;
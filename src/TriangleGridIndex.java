@@ -0,0 +1,208 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Uniform grid index over the triangles of an indexed mesh, answering point
+ * location queries in close to constant time without a locality hint. The
+ * bounding box of the mesh is divided into square cells holding about
+ * {@link #TRIANGLES_PER_CELL} triangles each, and every cell lists the
+ * triangles whose bounding box overlaps it. The index is built in parallel
+ * and never changed afterwards, so it may be shared between threads.
+ */
+public final class TriangleGridIndex {
+
+    /**
+     * The number of triangles per cell the grid resolution aims for.
+     */
+    private static final int TRIANGLES_PER_CELL = 2;
+
+    /**
+     * The maximal number of columns and of rows of the grid.
+     */
+    private static final int MAX_CELLS_PER_SIDE = 1 << 15;
+
+    /**
+     * Meshes with fewer triangles are indexed on the current thread.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    private final IndexedMesh mesh;
+
+    private final double originX;
+    private final double originY;
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+
+    private final int[] cellStart;
+    private final int[] cellTriangles;
+
+    /**
+     * Constructor of the triangle grid index class used to create a new index
+     * for a mesh. The mesh must not be changed afterwards.
+     *
+     * @param mesh
+     *            The mesh
+     */
+    public TriangleGridIndex(final IndexedMesh mesh) {
+        this.mesh = mesh;
+        int triangleCount = mesh.triangleCount;
+
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < 3 * triangleCount; i++) {
+            int vertex = mesh.triangles[i];
+            minX = Math.min(minX, mesh.x[vertex]);
+            minY = Math.min(minY, mesh.y[vertex]);
+            maxX = Math.max(maxX, mesh.x[vertex]);
+            maxY = Math.max(maxY, mesh.y[vertex]);
+        }
+
+        if (triangleCount == 0) {
+            originX = 0.0d;
+            originY = 0.0d;
+            cellSize = 1.0d;
+            columns = 0;
+            rows = 0;
+            cellStart = new int[1];
+            cellTriangles = new int[0];
+            return;
+        }
+
+        double width = maxX - minX;
+        double height = maxY - minY;
+        int cellCount = Math.max(1, triangleCount / TRIANGLES_PER_CELL);
+        double size = Math.sqrt(width * height / cellCount);
+        if (!(size > 0.0d)) {
+            size = Math.max(Math.max(width, height), Double.MIN_NORMAL);
+        }
+        if (Math.max(width, height) / size > MAX_CELLS_PER_SIDE - 1) {
+            /**
+             * Elongated meshes get larger cells rather than fewer, so the grid
+             * still covers the whole bounding box.
+             */
+            size = Math.max(width, height) / (MAX_CELLS_PER_SIDE - 1);
+        }
+
+        originX = minX;
+        originY = minY;
+        cellSize = size;
+        columns = (int) Math.min(Math.floor(width / size) + 1, MAX_CELLS_PER_SIDE);
+        rows = (int) Math.min(Math.floor(height / size) + 1, MAX_CELLS_PER_SIDE);
+
+        /**
+         * The cell ranges of the triangles are computed in parallel, then the
+         * triangles are counted and entered into the cells they overlap in
+         * ascending order.
+         */
+        final int[] ranges = new int[4 * triangleCount];
+        IntStream indices = IntStream.range(0, triangleCount);
+        if (triangleCount >= PARALLEL_THRESHOLD) {
+            indices = indices.parallel();
+        }
+        indices.forEach(t -> cellRange(t, ranges));
+
+        cellStart = new int[rows * columns + 1];
+        for (int t = 0; t < triangleCount; t++) {
+            for (int row = ranges[4 * t + 2]; row <= ranges[4 * t + 3]; row++) {
+                for (int column = ranges[4 * t]; column <= ranges[4 * t + 1]; column++) {
+                    cellStart[row * columns + column + 1]++;
+                }
+            }
+        }
+        for (int cell = 0; cell < rows * columns; cell++) {
+            cellStart[cell + 1] += cellStart[cell];
+        }
+
+        cellTriangles = new int[cellStart[rows * columns]];
+        int[] fill = Arrays.copyOf(cellStart, rows * columns);
+        for (int t = 0; t < triangleCount; t++) {
+            for (int row = ranges[4 * t + 2]; row <= ranges[4 * t + 3]; row++) {
+                for (int column = ranges[4 * t]; column <= ranges[4 * t + 1]; column++) {
+                    cellTriangles[fill[row * columns + column]++] = t;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stores the first and last column and the first and last row of the
+     * cells overlapped by the bounding box of the triangle.
+     */
+    private void cellRange(int t, int[] ranges) {
+        int a = mesh.triangles[3 * t];
+        int b = mesh.triangles[3 * t + 1];
+        int c = mesh.triangles[3 * t + 2];
+        ranges[4 * t] = column(Math.min(mesh.x[a], Math.min(mesh.x[b], mesh.x[c])));
+        ranges[4 * t + 1] = column(Math.max(mesh.x[a], Math.max(mesh.x[b], mesh.x[c])));
+        ranges[4 * t + 2] = row(Math.min(mesh.y[a], Math.min(mesh.y[b], mesh.y[c])));
+        ranges[4 * t + 3] = row(Math.max(mesh.y[a], Math.max(mesh.y[b], mesh.y[c])));
+    }
+
+    private int column(double x) {
+        return Math.min(Math.max((int) Math.floor((x - originX) / cellSize), 0), columns - 1);
+    }
+
+    private int row(double y) {
+        return Math.min(Math.max((int) Math.floor((y - originY) / cellSize), 0), rows - 1);
+    }
+
+    /**
+     * Returns the index of a triangle containing the point, either inside or
+     * on its boundary.
+     *
+     * @param x
+     *            The x coordinate of the point
+     * @param y
+     *            The y coordinate of the point
+     * @return Returns the index of the triangle or -1 if the point lies
+     *         outside of the mesh
+     */
+    public int locate(double x, double y) {
+        if (rows == 0 || !(x >= originX && y >= originY && x <= originX + columns * cellSize
+                && y <= originY + rows * cellSize)) {
+            return -1;
+        }
+
+        double[] vx = mesh.x;
+        double[] vy = mesh.y;
+        int[] triangles = mesh.triangles;
+
+        int cell = row(y) * columns + column(x);
+        for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+            int t = cellTriangles[i];
+            int a = triangles[3 * t];
+            int b = triangles[3 * t + 1];
+            int c = triangles[3 * t + 2];
+            if (Predicates.containsClosed(vx[a], vy[a], vx[b], vy[b], vx[c], vy[c], x, y)) {
+                return t;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of a triangle containing the point, either inside or
+     * on its boundary.
+     *
+     * @param point
+     *            The point
+     * @return Returns the index of the triangle or -1 if the point lies
+     *         outside of the mesh
+     */
+    public int locate(Point point) {
+        return locate(point.x, point.y);
+    }
+
+    /**
+     * Returns the mesh the index was built for.
+     *
+     * @return Returns the mesh
+     */
+    public IndexedMesh getMesh() {
+        return mesh;
+    }
+
+}
@@ -1,12 +1,172 @@
+import java.util.AbstractCollection;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
 
 /**
- * Triangle soup class implementation.
+ * Triangle soup class implementation. Triangles are stored in slots of an
+ * array and remember the index of their slot, so adding and removing a
+ * triangle takes constant time. The slots of removed triangles are reused by
+ * subsequently added triangles and can be squeezed out with {@link #compact()}.
+ * A triangle can only be part of one triangle soup at a time.
  */
-class TriangleSoup extends ArrayList<Triangle> {
+class TriangleSoup extends AbstractCollection<Triangle> {
 
+    /**
+     * Triangle soups with fewer slots are filtered on the current thread.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    private Triangle[] slots = new Triangle[16];
+    private int slotCount;
+    private int size;
+
+    private int[] freeSlots = new int[16];
+    private int freeSlotCount;
+
+    private boolean convex = true;
+
+    @Override
+    public boolean add(Triangle triangle) {
+        if (contains(triangle)) {
+            return false;
+        }
+
+        int slot;
+        if (freeSlotCount > 0) {
+            slot = freeSlots[--freeSlotCount];
+        } else {
+            if (slotCount == slots.length) {
+                slots = Arrays.copyOf(slots, slots.length * 2);
+            }
+            slot = slotCount++;
+        }
+
+        slots[slot] = triangle;
+        triangle.soupIndex = slot;
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!contains(o)) {
+            return false;
+        }
+
+        Triangle triangle = (Triangle) o;
+        int slot = triangle.soupIndex;
+
+        slots[slot] = null;
+        triangle.soupIndex = -1;
+        size--;
+
+        if (freeSlotCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        freeSlots[freeSlotCount++] = slot;
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof Triangle)) {
+            return false;
+        }
+        int slot = ((Triangle) o).soupIndex;
+        return slot >= 0 && slot < slotCount && slots[slot] == o;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < slotCount; i++) {
+            if (slots[i] != null) {
+                slots[i].soupIndex = -1;
+                slots[i] = null;
+            }
+        }
+        slotCount = 0;
+        size = 0;
+        freeSlotCount = 0;
+        convex = true;
+    }
+
+    /**
+     * Moves all triangles to the front of the slot array and drops the slots
+     * of removed triangles. Iterators created before compaction must not be
+     * used afterwards.
+     */
+    public void compact() {
+        int target = 0;
+        for (int i = 0; i < slotCount; i++) {
+            Triangle triangle = slots[i];
+            if (triangle != null) {
+                slots[i] = null;
+                slots[target] = triangle;
+                triangle.soupIndex = target;
+                target++;
+            }
+        }
+        slotCount = target;
+        freeSlotCount = 0;
+    }
+
+    /**
+     * Returns an iterator over the triangles of this triangle soup. Triangles
+     * added while iterating may or may not be visited, depending on the slot
+     * they are stored in.
+     */
+    @Override
+    public Iterator<Triangle> iterator() {
+        return new Iterator<Triangle>() {
+
+            private int next = advance(0);
+            private int current = -1;
+
+            private int advance(int slot) {
+                while (slot < slotCount && slots[slot] == null) {
+                    slot++;
+                }
+                return slot;
+            }
+
+            @Override
+            public boolean hasNext() {
+                next = advance(next);
+                return next < slotCount;
+            }
+
+            @Override
+            public Triangle next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                current = next;
+                next = advance(next + 1);
+                return slots[current];
+            }
+
+            @Override
+            public void remove() {
+                if (current < 0 || slots[current] == null) {
+                    throw new IllegalStateException();
+                }
+                TriangleSoup.this.remove(slots[current]);
+                current = -1;
+            }
+        };
+    }
 
     /**
      * Returns the triangle from this triangle soup that contains the specified
@@ -18,18 +178,28 @@ class TriangleSoup extends ArrayList<Triangle> {
      *         specified point or null
      */
     public Triangle findContainingTriangle(Point point) {
-        for (Triangle triangle : this) {
-            if (triangle.contains(point)) {
-                return triangle;
+        for (int i = 0; i < slotCount; i++) {
+            if (slots[i] != null && slots[i].contains(point)) {
+                return slots[i];
             }
         }
         return null;
     }
 
+    /**
+     * Returns the triangle from this triangle soup that contains the specified
+     * point, including points on the boundary of a triangle, or null if no
+     * triangle from the triangle soup contains the point.
+     * 
+     * @param point
+     *            The point
+     * @return Returns the triangle from this triangle soup that contains the
+     *         specified point or null
+     */
     public Triangle findContainingTriangleNew(Point point) {
-        for (Triangle triangle : this) {
-            if (triangle.containsNew(point)) {
-                return triangle;
+        for (int i = 0; i < slotCount; i++) {
+            if (slots[i] != null && slots[i].containsNew(point)) {
+                return slots[i];
             }
         }
         return null;
@@ -62,86 +232,248 @@ class TriangleSoup extends ArrayList<Triangle> {
      * @return The edge from the triangle soup nearest to the specified point
      */
     public Edge findNearestEdge(Point point) {
-        List<EdgeDistancePack> edgeList = new ArrayList<EdgeDistancePack>();
+        Triangle nearestTriangle = null;
+        int nearestEdge = 0;
+        double nearestDistance = Double.POSITIVE_INFINITY;
 
-        for (Triangle triangle : this) {
-            edgeList.add(triangle.findNearestEdge(point));
-        }
+        for (int i = 0; i < slotCount; i++) {
+            Triangle triangle = slots[i];
+            if (triangle == null) {
+                continue;
+            }
+
+            int edge = Predicates.nearestEdge(triangle.a.x, triangle.a.y, triangle.b.x, triangle.b.y,
+                    triangle.c.x, triangle.c.y, point.x, point.y);
+            double distance;
+            switch (edge) {
+            case 0:
+                distance = Predicates.segmentDistanceSquared(triangle.a.x, triangle.a.y, triangle.b.x,
+                        triangle.b.y, point.x, point.y);
+                break;
+            case 1:
+                distance = Predicates.segmentDistanceSquared(triangle.b.x, triangle.b.y, triangle.c.x,
+                        triangle.c.y, point.x, point.y);
+                break;
+            default:
+                distance = Predicates.segmentDistanceSquared(triangle.c.x, triangle.c.y, triangle.a.x,
+                        triangle.a.y, point.x, point.y);
+                break;
+            }
 
-        EdgeDistancePack[] edgeDistancePacks = new EdgeDistancePack[edgeList.size()];
-        edgeList.toArray(edgeDistancePacks);
+            if (distance < nearestDistance) {
+                nearestDistance = distance;
+                nearestTriangle = triangle;
+                nearestEdge = edge;
+            }
+        }
 
-        Arrays.sort(edgeDistancePacks);
-        return edgeDistancePacks[0].edge;
+        if (nearestTriangle == null) {
+            return null;
+        }
+        switch (nearestEdge) {
+        case 0:
+            return new Edge(nearestTriangle.a, nearestTriangle.b);
+        case 1:
+            return new Edge(nearestTriangle.b, nearestTriangle.c);
+        default:
+            return new Edge(nearestTriangle.c, nearestTriangle.a);
+        }
     }
 
     /**
      * Removes all triangles from this triangle soup that contain the specified
-     * vertex.
+     * vertex. The remaining neighbours of a removed triangle lose their link
+     * to it, so the neighbour links stay within the triangle soup.
      * 
      * @param vertex
      *            The vertex
      */
     public void removeTrianglesUsing(Point vertex) {
-        List<Triangle> trianglesToBeRemoved = new ArrayList<Triangle>();
-
-        for (Triangle triangle : this) {
-            if (triangle.hasVertex(vertex)) {
-                trianglesToBeRemoved.add(triangle);
+        for (int i = 0; i < slotCount; i++) {
+            Triangle triangle = slots[i];
+            if (triangle != null && triangle.hasVertex(vertex)) {
+                convex = false;
+                remove(triangle);
+                unlink(triangle, triangle.neighbourOppositeA);
+                unlink(triangle, triangle.neighbourOppositeB);
+                unlink(triangle, triangle.neighbourOppositeC);
             }
         }
+    }
 
-        removeAll(trianglesToBeRemoved);
+    private static void unlink(Triangle removed, Triangle neighbour) {
+        if (neighbour == null) {
+            return;
+        }
+        if (neighbour.neighbourOppositeA == removed) {
+            neighbour.neighbourOppositeA = null;
+        }
+        if (neighbour.neighbourOppositeB == removed) {
+            neighbour.neighbourOppositeB = null;
+        }
+        if (neighbour.neighbourOppositeC == removed) {
+            neighbour.neighbourOppositeC = null;
+        }
     }
     
+    /**
+     * Removes all triangles from this triangle soup with an edge longer than
+     * the given length. Applied to a Delaunay triangulation this carves the
+     * concave outline of the point set out of its convex hull.
+     * 
+     * @param maxEdgeLength
+     *            The maximum length of the edges of the remaining triangles
+     * @return Returns the number of removed triangles
+     */
+    public int removeTrianglesLongerThan(double maxEdgeLength) {
+        final double max = maxEdgeLength * maxEdgeLength;
+        return removeTriangles(triangle -> distanceSquared(triangle.a, triangle.b) > max
+                || distanceSquared(triangle.b, triangle.c) > max || distanceSquared(triangle.c, triangle.a) > max);
+    }
+
+    /**
+     * Removes all triangles from this triangle soup whose circumcircle has a
+     * radius larger than alpha. Applied to a Delaunay triangulation the
+     * remaining triangles form the alpha shape of the point set. Degenerate
+     * triangles have an infinite circumcircle and are always removed.
+     * 
+     * @param alpha
+     *            The maximum circumradius of the remaining triangles
+     * @return Returns the number of removed triangles
+     */
+    public int removeTrianglesOutsideAlphaShape(double alpha) {
+        final double alphaSquared = alpha * alpha;
+        return removeTriangles(triangle -> {
+            /**
+             * The circumradius is |ab| |bc| |ca| / (4 area), and the
+             * orientation is twice the area of the triangle.
+             */
+            double orientation = Predicates.orientation(triangle.a.x, triangle.a.y, triangle.b.x, triangle.b.y,
+                    triangle.c.x, triangle.c.y);
+            return distanceSquared(triangle.a, triangle.b) * distanceSquared(triangle.b, triangle.c)
+                    * distanceSquared(triangle.c, triangle.a) > 4.0d * alphaSquared * orientation * orientation;
+        });
+    }
+
+    private static double distanceSquared(Point a, Point b) {
+        double dx = a.x - b.x;
+        double dy = a.y - b.y;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Removes all triangles passing the test in linear time. The triangles
+     * are tested and the remaining triangles drop their links to removed
+     * neighbours in two parallel passes over the slots, then the soup is
+     * compacted once.
+     */
+    private int removeTriangles(final Predicate<Triangle> test) {
+        final Triangle[] slots = this.slots;
+        final int count = slotCount;
+        final boolean[] removed = new boolean[count];
+
+        IntStream indices = IntStream.range(0, count);
+        if (count >= PARALLEL_THRESHOLD) {
+            indices = indices.parallel();
+        }
+        indices.forEach(i -> removed[i] = slots[i] != null && test.test(slots[i]));
+
+        indices = IntStream.range(0, count);
+        if (count >= PARALLEL_THRESHOLD) {
+            indices = indices.parallel();
+        }
+        indices.forEach(i -> {
+            Triangle triangle = slots[i];
+            if (triangle != null && !removed[i]) {
+                if (isRemoved(triangle.neighbourOppositeA, slots, removed)) {
+                    triangle.neighbourOppositeA = null;
+                }
+                if (isRemoved(triangle.neighbourOppositeB, slots, removed)) {
+                    triangle.neighbourOppositeB = null;
+                }
+                if (isRemoved(triangle.neighbourOppositeC, slots, removed)) {
+                    triangle.neighbourOppositeC = null;
+                }
+            }
+        });
+
+        int removedCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (removed[i]) {
+                slots[i].soupIndex = -1;
+                slots[i] = null;
+                removedCount++;
+            }
+        }
+        size -= removedCount;
+        if (removedCount > 0) {
+            convex = false;
+        }
+        compact();
+        return removedCount;
+    }
+
+    private static boolean isRemoved(Triangle triangle, Triangle[] slots, boolean[] removed) {
+        if (triangle == null) {
+            return false;
+        }
+        int slot = triangle.soupIndex;
+        return slot >= 0 && slot < removed.length && removed[slot] && slots[slot] == triangle;
+    }
+
+    /**
+     * Returns false if triangles were carved out of this triangle soup by
+     * {@link #removeTrianglesUsing(Point)} or one of the filters, so its
+     * boundary may be concave or have holes. Triangle soups built by the
+     * triangulation engines cover the convex hull of their points.
+     * 
+     * @return Returns true if the triangles may be assumed to cover a convex
+     *         region
+     */
+    public boolean isConvex() {
+        return convex;
+    }
+
+    /**
+     * Marks this triangle soup as possibly not convex, for triangles read
+     * from a mesh whose boundary is concave or has holes.
+     */
+    void markConcave() {
+        convex = false;
+    }
+
     public void flipTriangle(Triangle triangle, Triangle neighbourTriangle) {
     	
     }
     
+    /**
+     * Returns the isolines of the given level, each as list of points. The
+     * triangle soup is converted into an indexed mesh and traced by the
+     * {@link ContourEngine}, use it directly to extract many levels at once.
+     * 
+     * @param threshold
+     *            The level
+     * @return Returns the isolines of the level
+     */
     public ArrayList<ArrayList<Point>> getIsoline(float threshold) {
-    	ArrayList<ArrayList<Point>> isoline = new ArrayList<>();
-    	ArrayList<Triangle> triangles = (ArrayList<Triangle>) clone();
-    	for (Triangle triangle : triangles) {
-    		if (!triangle.isVisited) {
-    			ArrayList<Point> part = recursion(new ArrayList<Point>(), triangle, threshold, null);
-    			if (!part.isEmpty()) {
-    				isoline.add(part);
-    			}
-    		}
-    	}
-    	return isoline;
+        Map<Point, Boolean> seen = new IdentityHashMap<Point, Boolean>();
+        List<Point> vertices = new ArrayList<Point>();
+        for (int i = 0; i < slotCount; i++) {
+            Triangle triangle = slots[i];
+            if (triangle != null) {
+                for (Point vertex : new Point[] { triangle.a, triangle.b, triangle.c }) {
+                    if (seen.put(vertex, Boolean.TRUE) == null) {
+                        vertices.add(vertex);
+                    }
+                }
+            }
+        }
+
+        ArrayList<ArrayList<Point>> isoline = new ArrayList<>();
+        for (Isoline part : ContourEngine.extract(IndexedMesh.of(vertices, this), threshold)) {
+            isoline.add(new ArrayList<Point>(part.getPoints()));
+        }
+        return isoline;
     }
-    
-    private ArrayList<Point> determineIsoline(ArrayList<Point> isoline, Triangle triangle, float threshold, Point point) {
-    	if (triangle == null) return isoline;
-    	triangle.isVisited = true;
-    	return recursion(isoline, triangle, threshold, point);
-    }
-
-	private ArrayList<Point> recursion(ArrayList<Point> isoline, Triangle triangle, float threshold, Point point) {
-		Point newPoint = null;
-    	Triangle nextTriangle = null;
-    	Point depricatedPoint = null;
-		if (!triangle.c.equals(point) && Math.min(triangle.a.z, triangle.b.z) < threshold && Math.max(triangle.a.z, triangle.b.z) > threshold) {
-			newPoint = triangle.a.divide(triangle.b, threshold);
-			nextTriangle = triangle.neighbourOppositeC;
-			depricatedPoint = nextTriangle.getNoneEdgeVertex(new Edge(triangle.a, triangle.b));
-		} 
-		if (!triangle.b.equals(point) && Math.min(triangle.a.z, triangle.c.z) < threshold && Math.max(triangle.a.z, triangle.c.z) > threshold) {
-			newPoint = triangle.a.divide(triangle.c, threshold);
-			nextTriangle = triangle.neighbourOppositeB;
-			depricatedPoint = nextTriangle.getNoneEdgeVertex(new Edge(triangle.a, triangle.c));
-		} 
-		if (!triangle.a.equals(point) && Math.min(triangle.b.z, triangle.c.z) < threshold && Math.max(triangle.b.z, triangle.c.z) > threshold) {
-			newPoint = triangle.b.divide(triangle.c, threshold);
-			nextTriangle = triangle.neighbourOppositeA;
-			depricatedPoint = nextTriangle.getNoneEdgeVertex(new Edge(triangle.b, triangle.c));
-		}
-		if ((isoline.isEmpty() || !newPoint.equals(isoline.get(isoline.size() - 1))) && !nextTriangle.isVisited) {
-			isoline.add(newPoint);
-			determineIsoline(isoline, nextTriangle, threshold, depricatedPoint);
-		}
-    	return isoline;
-	}
 
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+import java.util.List;
+
+/**
+ * Algorithm computing the Delaunay triangulation of a point set. Every engine
+ * returns a triangle soup whose triangles are built from the points of the
+ * point set and whose neighbour links are set. Engines working on primitive
+ * arrays can also write the triangulation straight into an indexed mesh.
+ */
+public interface TriangulationEngine {
+
+    /**
+     * This method generates a Delaunay triangulation from the specified point
+     * set.
+     * 
+     * @param pointSet
+     *            The point set to be triangulated
+     * @return Returns the triangles of the triangulation
+     * @throws NotEnoughPointsException
+     *             Thrown when the point set contains less than three points
+     */
+    TriangleSoup triangulate(List<Point> pointSet) throws NotEnoughPointsException;
+
+    /**
+     * This method generates a Delaunay triangulation from the specified point
+     * set and returns it as indexed mesh. The index of a vertex in the mesh
+     * is the index of the point in the point set. By default the triangle
+     * soup is converted, engines that can build the mesh without creating
+     * triangle objects override this method.
+     * 
+     * @param pointSet
+     *            The point set to be triangulated
+     * @return Returns the triangulation as indexed mesh
+     * @throws NotEnoughPointsException
+     *             Thrown when the point set contains less than three points
+     */
+    default IndexedMesh triangulateIndexed(List<Point> pointSet) throws NotEnoughPointsException {
+        return IndexedMesh.of(pointSet, triangulate(pointSet));
+    }
+
+    /**
+     * Sets the statistics this engine adds its counters and phase times to.
+     * Counters that have no meaning for an engine are left untouched, engines
+     * that are not instrumented ignore the statistics.
+     * 
+     * @param statistics
+     *            The statistics, null to stop counting
+     */
+    default void setStatistics(TriangulationStatistics statistics) {
+    }
+
+}
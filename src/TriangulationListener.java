@@ -0,0 +1,30 @@
+/**
+ * Listener notified by {@link DelaunayTriangulator} when a phase of a
+ * triangulation or a whole triangulation is finished. The listener is only
+ * called a few times per triangulation, never per point, so it may stay
+ * registered in production. All methods do nothing by default.
+ */
+public interface TriangulationListener {
+
+    /**
+     * This method is called when a phase is finished.
+     *
+     * @param phase
+     *            The phase
+     * @param nanos
+     *            The time spent in the phase in nanoseconds
+     */
+    default void phaseFinished(TriangulationStatistics.Phase phase, long nanos) {
+    }
+
+    /**
+     * This method is called when a triangulation is finished.
+     *
+     * @param run
+     *            The statistics of the triangulation alone, a copy the
+     *            listener may keep
+     */
+    default void triangulationFinished(TriangulationStatistics run) {
+    }
+
+}
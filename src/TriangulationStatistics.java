@@ -0,0 +1,211 @@
+/**
+ * Counters and phase timers of the triangulation engines, see
+ * {@link TriangulationEngine#setStatistics(TriangulationStatistics)}. The
+ * engines increment the plain fields directly on their hot paths, so keeping
+ * the statistics costs a few additions per point and no allocation. The counters accumulate over
+ * all triangulations and incremental edits until {@link #reset()} is called.
+ * The statistics implement a standard MBean and can be registered with the
+ * platform MBean server, values read while the engine is running may be
+ * slightly out of date.
+ */
+public class TriangulationStatistics implements TriangulationStatisticsMBean {
+
+    /**
+     * The phases of a triangulation that are timed.
+     */
+    public enum Phase {
+        /**
+         * Reordering the points before they are inserted.
+         */
+        ORDERING,
+        /**
+         * Inserting the points, including point location and flips.
+         */
+        INSERTION,
+        /**
+         * Compacting the triangle soup after the insertion.
+         */
+        CLEANUP
+    }
+
+    long locationSteps;
+    long locationFallbacks;
+    long flips;
+    long trianglesCreated;
+    long trianglesRemoved;
+    long orderingNanos;
+    long insertionNanos;
+    long cleanupNanos;
+    long triangulations;
+
+    /**
+     * Adds the time spent in a phase.
+     *
+     * @param phase
+     *            The phase
+     * @param nanos
+     *            The time in nanoseconds
+     */
+    void addTime(Phase phase, long nanos) {
+        switch (phase) {
+        case ORDERING:
+            orderingNanos += nanos;
+            break;
+        case INSERTION:
+            insertionNanos += nanos;
+            break;
+        default:
+            cleanupNanos += nanos;
+            break;
+        }
+    }
+
+    /**
+     * Creates a copy of these statistics.
+     *
+     * @return Returns the copy
+     */
+    public TriangulationStatistics copy() {
+        return since(new TriangulationStatistics());
+    }
+
+    /**
+     * Creates the statistics of everything counted after an earlier copy of
+     * these statistics was taken.
+     *
+     * @param earlier
+     *            The earlier copy
+     * @return Returns the difference of these statistics and the copy
+     */
+    public TriangulationStatistics since(TriangulationStatistics earlier) {
+        TriangulationStatistics difference = new TriangulationStatistics();
+        difference.locationSteps = locationSteps - earlier.locationSteps;
+        difference.locationFallbacks = locationFallbacks - earlier.locationFallbacks;
+        difference.flips = flips - earlier.flips;
+        difference.trianglesCreated = trianglesCreated - earlier.trianglesCreated;
+        difference.trianglesRemoved = trianglesRemoved - earlier.trianglesRemoved;
+        difference.orderingNanos = orderingNanos - earlier.orderingNanos;
+        difference.insertionNanos = insertionNanos - earlier.insertionNanos;
+        difference.cleanupNanos = cleanupNanos - earlier.cleanupNanos;
+        difference.triangulations = triangulations - earlier.triangulations;
+        return difference;
+    }
+
+    /**
+     * Returns the number of triangles the point location walks stepped
+     * through.
+     *
+     * @return Returns the number of point location steps
+     */
+    @Override
+    public long getLocationSteps() {
+        return locationSteps;
+    }
+
+    /**
+     * Returns the number of point locations that fell back to a linear scan
+     * of the triangle soup because the walk did not terminate.
+     *
+     * @return Returns the number of point location fallbacks
+     */
+    @Override
+    public long getLocationFallbacks() {
+        return locationFallbacks;
+    }
+
+    /**
+     * Returns the number of edge flips.
+     *
+     * @return Returns the number of flips
+     */
+    @Override
+    public long getFlips() {
+        return flips;
+    }
+
+    /**
+     * Returns the number of triangles added to the triangle soup.
+     *
+     * @return Returns the number of created triangles
+     */
+    @Override
+    public long getTrianglesCreated() {
+        return trianglesCreated;
+    }
+
+    /**
+     * Returns the number of triangles removed from the triangle soup.
+     *
+     * @return Returns the number of removed triangles
+     */
+    @Override
+    public long getTrianglesRemoved() {
+        return trianglesRemoved;
+    }
+
+    /**
+     * Returns the time spent reordering points.
+     *
+     * @return Returns the time in nanoseconds
+     */
+    @Override
+    public long getOrderingNanos() {
+        return orderingNanos;
+    }
+
+    /**
+     * Returns the time spent inserting points.
+     *
+     * @return Returns the time in nanoseconds
+     */
+    @Override
+    public long getInsertionNanos() {
+        return insertionNanos;
+    }
+
+    /**
+     * Returns the time spent compacting the triangle soup.
+     *
+     * @return Returns the time in nanoseconds
+     */
+    @Override
+    public long getCleanupNanos() {
+        return cleanupNanos;
+    }
+
+    /**
+     * Returns the number of finished triangulations.
+     *
+     * @return Returns the number of triangulations
+     */
+    @Override
+    public long getTriangulations() {
+        return triangulations;
+    }
+
+    /**
+     * Sets all counters and timers back to zero.
+     */
+    @Override
+    public void reset() {
+        locationSteps = 0L;
+        locationFallbacks = 0L;
+        flips = 0L;
+        trianglesCreated = 0L;
+        trianglesRemoved = 0L;
+        orderingNanos = 0L;
+        insertionNanos = 0L;
+        cleanupNanos = 0L;
+        triangulations = 0L;
+    }
+
+    @Override
+    public String toString() {
+        return "TriangulationStatistics[triangulations=" + triangulations + ", locationSteps=" + locationSteps
+                + ", locationFallbacks=" + locationFallbacks + ", flips=" + flips + ", trianglesCreated="
+                + trianglesCreated + ", trianglesRemoved=" + trianglesRemoved + ", orderingMs="
+                + orderingNanos / 1000000L + ", insertionMs=" + insertionNanos / 1000000L + ", cleanupMs="
+                + cleanupNanos / 1000000L + "]";
+    }
+
+}
@@ -0,0 +1,27 @@
+/**
+ * Management interface of {@link TriangulationStatistics}, so the counters of
+ * a triangulation engine can be watched over JMX.
+ */
+public interface TriangulationStatisticsMBean {
+
+    long getLocationSteps();
+
+    long getLocationFallbacks();
+
+    long getFlips();
+
+    long getTrianglesCreated();
+
+    long getTrianglesRemoved();
+
+    long getOrderingNanos();
+
+    long getInsertionNanos();
+
+    long getCleanupNanos();
+
+    long getTriangulations();
+
+    void reset();
+
+}
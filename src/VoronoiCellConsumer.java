@@ -0,0 +1,23 @@
+/**
+ * Receiver of the cells of a Voronoi diagram, see {@link VoronoiDiagram}. The
+ * cells are passed one after the other in primitive arrays that are reused
+ * for the next cell, so a consumer has to copy whatever it keeps.
+ */
+public interface VoronoiCellConsumer {
+
+    /**
+     * This method receives the cell of a vertex as convex polygon in
+     * counterclockwise order, the corner i is (x[i], y[i]).
+     *
+     * @param vertex
+     *            The index of the vertex the cell belongs to
+     * @param x
+     *            The x coordinates of the corners, valid up to the size
+     * @param y
+     *            The y coordinates of the corners, valid up to the size
+     * @param size
+     *            The number of corners
+     */
+    void accept(int vertex, double[] x, double[] y, int size);
+
+}
@@ -0,0 +1,310 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Generates the Voronoi diagram dual to a Delaunay triangulation. The corners
+ * of the cells are the circumcenters of the triangles, computed once for all
+ * triangles, and the cell of a vertex is found by turning around the vertex
+ * through the neighbour links, so the whole diagram takes a single linear
+ * pass. Cells are clipped to a box and streamed to a consumer vertex by
+ * vertex, the diagram is never held in memory.
+ */
+public final class VoronoiDiagram {
+
+    /**
+     * Meshes with fewer triangles compute their circumcenters on the current
+     * thread.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    private VoronoiDiagram() {
+    }
+
+    /**
+     * Generates the Voronoi diagram of a point set from its triangulation.
+     *
+     * @param pointSet
+     *            The point set
+     * @param triangleSoup
+     *            The triangle soup of the complete Delaunay triangulation of
+     *            the point set
+     * @param minX
+     *            The minimum x coordinate of the clipping box
+     * @param minY
+     *            The minimum y coordinate of the clipping box
+     * @param maxX
+     *            The maximum x coordinate of the clipping box
+     * @param maxY
+     *            The maximum y coordinate of the clipping box
+     * @param consumer
+     *            The consumer receiving the cells
+     */
+    public static void generate(List<Point> pointSet, TriangleSoup triangleSoup, double minX, double minY,
+            double maxX, double maxY, VoronoiCellConsumer consumer) {
+        generate(IndexedMesh.of(pointSet, triangleSoup), minX, minY, maxX, maxY, consumer);
+    }
+
+    /**
+     * Generates the Voronoi diagram of the vertices of a mesh. The cells are
+     * passed in ascending order of their vertices. Cells of vertices on the
+     * hull are unbounded and end at the box like all other cells, cells lying
+     * completely outside of the box and vertices that are not part of any
+     * triangle are skipped.
+     *
+     * @param mesh
+     *            The mesh, expected to be a complete Delaunay triangulation
+     * @param minX
+     *            The minimum x coordinate of the clipping box
+     * @param minY
+     *            The minimum y coordinate of the clipping box
+     * @param maxX
+     *            The maximum x coordinate of the clipping box
+     * @param maxY
+     *            The maximum y coordinate of the clipping box
+     * @param consumer
+     *            The consumer receiving the cells
+     */
+    public static void generate(final IndexedMesh mesh, double minX, double minY, double maxX, double maxY,
+            VoronoiCellConsumer consumer) {
+        if (!(minX <= maxX && minY <= maxY)) {
+            throw new IllegalArgumentException("Clipping box is empty.");
+        }
+
+        final double[] vx = mesh.x;
+        final double[] vy = mesh.y;
+        final int[] triangles = mesh.triangles;
+        final int[] neighbours = mesh.neighbours;
+        int triangleCount = mesh.triangleCount;
+
+        final double[] circumcenters = new double[2 * triangleCount];
+        IntStream indices = IntStream.range(0, triangleCount);
+        if (triangleCount >= PARALLEL_THRESHOLD) {
+            indices = indices.parallel();
+        }
+        indices.forEach(t -> {
+            int a = triangles[3 * t];
+            int b = triangles[3 * t + 1];
+            int c = triangles[3 * t + 2];
+            double ux = vx[b] - vx[a];
+            double uy = vy[b] - vy[a];
+            double wx = vx[c] - vx[a];
+            double wy = vy[c] - vy[a];
+            double d = 2.0d * (ux * wy - uy * wx);
+            double u2 = ux * ux + uy * uy;
+            double w2 = wx * wx + wy * wy;
+            circumcenters[2 * t] = vx[a] + (wy * u2 - uy * w2) / d;
+            circumcenters[2 * t + 1] = vy[a] + (ux * w2 - wx * u2) / d;
+        });
+
+        /**
+         * One triangle of every vertex is the start of the turn around it.
+         */
+        int[] vertexTriangles = new int[mesh.vertexCount];
+        Arrays.fill(vertexTriangles, -1);
+        for (int i = 0; i < 3 * triangleCount; i++) {
+            vertexTriangles[triangles[i]] = i / 3;
+        }
+
+        Cell cell = new Cell();
+        for (int v = 0; v < mesh.vertexCount; v++) {
+            int start = vertexTriangles[v];
+            if (start < 0) {
+                continue;
+            }
+
+            /**
+             * The turn enters every triangle through its edge to the vertex
+             * other and leaves it through its edge to the third vertex.
+             */
+            cell.clear();
+            boolean closed = false;
+            int triangle = start;
+            int other = otherVertex(triangles, start, v, -1);
+            while (true) {
+                cell.add(circumcenters[2 * triangle], circumcenters[2 * triangle + 1]);
+                int third = otherVertex(triangles, triangle, v, other);
+                int next = neighbours[3 * triangle + slot(triangles, triangle, other)];
+                if (next == start) {
+                    closed = true;
+                    break;
+                }
+                if (next < 0) {
+                    break;
+                }
+                other = third;
+                triangle = next;
+            }
+
+            if (closed) {
+                if (!cell.isInside(minX, minY, maxX, maxY)) {
+                    cell.clip(1.0d, 0.0d, maxX);
+                    cell.clip(-1.0d, 0.0d, -minX);
+                    cell.clip(0.0d, 1.0d, maxY);
+                    cell.clip(0.0d, -1.0d, -minY);
+                }
+            } else {
+                /**
+                 * The cell of a hull vertex is unbounded, so it is cut out of
+                 * the box by the bisectors between the vertex and all of its
+                 * neighbours, found by turning both ways around it.
+                 */
+                cell.box(minX, minY, maxX, maxY);
+                for (int direction = 0; direction < 2; direction++) {
+                    triangle = start;
+                    other = otherVertex(triangles, start, v, -1);
+                    if (direction == 1) {
+                        other = otherVertex(triangles, start, v, other);
+                    }
+                    cell.bisector(vx[v], vy[v], vx[other], vy[other]);
+                    while (triangle >= 0) {
+                        int third = otherVertex(triangles, triangle, v, other);
+                        cell.bisector(vx[v], vy[v], vx[third], vy[third]);
+                        triangle = neighbours[3 * triangle + slot(triangles, triangle, other)];
+                        other = third;
+                    }
+                }
+            }
+
+            if (cell.size >= 3) {
+                cell.orient();
+                consumer.accept(v, cell.x, cell.y, cell.size);
+            }
+        }
+    }
+
+    /**
+     * Returns a vertex of the triangle that is neither the vertex nor the
+     * excluded vertex.
+     */
+    private static int otherVertex(int[] triangles, int triangle, int vertex, int excluded) {
+        for (int k = 0; k < 3; k++) {
+            int candidate = triangles[3 * triangle + k];
+            if (candidate != vertex && candidate != excluded) {
+                return candidate;
+            }
+        }
+        throw new IllegalStateException("Triangle " + triangle + " is degenerate.");
+    }
+
+    private static int slot(int[] triangles, int triangle, int vertex) {
+        return triangles[3 * triangle] == vertex ? 0 : triangles[3 * triangle + 1] == vertex ? 1 : 2;
+    }
+
+    /**
+     * The corners of the current cell and the buffers of the clipping, reused
+     * for all cells.
+     */
+    private static final class Cell {
+
+        double[] x = new double[16];
+        double[] y = new double[16];
+        int size;
+
+        private double[] clippedX = new double[16];
+        private double[] clippedY = new double[16];
+        private int clippedSize;
+
+        void clear() {
+            size = 0;
+        }
+
+        void add(double px, double py) {
+            if (size == x.length) {
+                x = Arrays.copyOf(x, 2 * size);
+                y = Arrays.copyOf(y, 2 * size);
+            }
+            x[size] = px;
+            y[size] = py;
+            size++;
+        }
+
+        void box(double minX, double minY, double maxX, double maxY) {
+            clear();
+            add(minX, minY);
+            add(maxX, minY);
+            add(maxX, maxY);
+            add(minX, maxY);
+        }
+
+        boolean isInside(double minX, double minY, double maxX, double maxY) {
+            for (int i = 0; i < size; i++) {
+                if (!(x[i] >= minX && x[i] <= maxX && y[i] >= minY && y[i] <= maxY)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Keeps the part of the cell closer to the vertex v than to the
+         * neighbour u.
+         */
+        void bisector(double vx, double vy, double ux, double uy) {
+            double a = ux - vx;
+            double b = uy - vy;
+            clip(a, b, a * vx + b * vy + 0.5d * (a * a + b * b));
+        }
+
+        /**
+         * Keeps the part of the cell where a * x + b * y <= c with the
+         * Sutherland-Hodgman algorithm.
+         */
+        void clip(double a, double b, double c) {
+            clippedSize = 0;
+            for (int i = 0; i < size; i++) {
+                int j = i + 1 == size ? 0 : i + 1;
+                double di = a * x[i] + b * y[i] - c;
+                double dj = a * x[j] + b * y[j] - c;
+                if (di <= 0.0d) {
+                    addClipped(x[i], y[i]);
+                }
+                if ((di < 0.0d && dj > 0.0d) || (di > 0.0d && dj < 0.0d)) {
+                    double f = di / (di - dj);
+                    addClipped(x[i] + f * (x[j] - x[i]), y[i] + f * (y[j] - y[i]));
+                }
+            }
+
+            double[] swap = x;
+            x = clippedX;
+            clippedX = swap;
+            swap = y;
+            y = clippedY;
+            clippedY = swap;
+            size = clippedSize;
+        }
+
+        private void addClipped(double px, double py) {
+            if (clippedSize == clippedX.length) {
+                clippedX = Arrays.copyOf(clippedX, 2 * clippedSize);
+                clippedY = Arrays.copyOf(clippedY, 2 * clippedSize);
+            }
+            clippedX[clippedSize] = px;
+            clippedY[clippedSize] = py;
+            clippedSize++;
+        }
+
+        /**
+         * Reverses the corners if they run clockwise.
+         */
+        void orient() {
+            double area = 0.0d;
+            for (int i = 0; i < size; i++) {
+                int j = i + 1 == size ? 0 : i + 1;
+                area += (x[i] - x[0]) * (y[j] - y[0]) - (y[i] - y[0]) * (x[j] - x[0]);
+            }
+            if (area < 0.0d) {
+                for (int i = 0, j = size - 1; i < j; i++, j--) {
+                    double swap = x[i];
+                    x[i] = x[j];
+                    x[j] = swap;
+                    swap = y[i];
+                    y[i] = y[j];
+                    y[j] = swap;
+                }
+            }
+        }
+
+    }
+
+}